@@ -0,0 +1,148 @@
+package com.commandchest.benchmarks;
+
+import com.commandchest.managers.ChestIndex;
+import com.commandchest.models.ChestData;
+import com.commandchest.util.CooldownTable;
+import com.commandchest.util.TokenBucket;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The checks {@code ChestActivationListener} makes before queueing an activation, in the same order:
+ * chest lookup, activation method, required item, cooldown, rate limit and configured commands.
+ * Player and event objects are replaced by plain values; messages and the queue are left out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActivationBenchmark {
+
+    private static final int PROBES = 1024; // power of two, probes are cycled with a mask
+
+    // Why an activation stopped, as returned by decide
+    private static final int NOT_A_CHEST = 0;
+    private static final int WRONG_CLICK = 1;
+    private static final int ITEM_REQUIRED = 2;
+    private static final int ON_COOLDOWN = 3;
+    private static final int RATE_LIMITED = 4;
+    private static final int NOT_CONFIGURED = 5;
+    private static final int ACTIVATED = 6;
+
+    @Param({"10000"})
+    public int chests;
+
+    private ChestIndex index;
+    private CooldownTable cooldowns;
+    private TokenBucket perChest;
+    private UUID worldId;
+    private long now;
+    private long origin;
+
+    private final int[] x = new int[PROBES];
+    private final int[] y = new int[PROBES];
+    private final int[] z = new int[PROBES];
+    private final int[] missX = new int[PROBES];
+    private final int[] missZ = new int[PROBES];
+    private final UUID[] players = new UUID[PROBES];
+    private final UUID[] waitingPlayers = new UUID[PROBES];
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        World world = StandIns.world("world");
+        worldId = world.getUID();
+        index = new ChestIndex();
+        now = System.currentTimeMillis();
+        origin = System.nanoTime();
+        cooldowns = new CooldownTable(now);
+        // Generous enough that the allowed case never runs out of tokens
+        perChest = TokenBucket.of(1_000_000_000.0, 1_000_000);
+
+        Random random = new Random(42);
+        List<ChestData> placed = new ArrayList<>();
+        while (placed.size() < chests) {
+            int cx = random.nextInt(512) - 256;
+            int cy = 60 + random.nextInt(16);
+            int cz = random.nextInt(512) - 256;
+            if (index.get(worldId, cx, cy, cz) != null) {
+                continue;
+            }
+            ChestData chestData = new ChestData(UUID.randomUUID(), new Location(world, cx, cy, cz));
+            chestData.setActivationMethod(ChestData.ActivationMethod.RIGHT);
+            chestData.setCooldown(60);
+            chestData.setCommands(List.of("[console] give {player} diamond 1"));
+            index.put(chestData);
+            placed.add(chestData);
+        }
+
+        for (int i = 0; i < PROBES; i++) {
+            Location location = placed.get(i % placed.size()).getLocation();
+            x[i] = location.getBlockX();
+            y[i] = location.getBlockY();
+            z[i] = location.getBlockZ();
+            players[i] = new UUID(random.nextLong(), random.nextLong());
+            waitingPlayers[i] = new UUID(random.nextLong(), random.nextLong());
+            cooldowns.put(placed.get(i % placed.size()).getChestUUID(), waitingPlayers[i], now + 60_000L);
+
+            // Clicks on other blocks far away from the chests
+            missX[i] = 4096 + random.nextInt(4096);
+            missZ[i] = 4096 + random.nextInt(4096);
+        }
+    }
+
+    @Benchmark
+    public int notAChest() {
+        int i = cursor++ & (PROBES - 1);
+        return decide(missX[i], y[i], missZ[i], false, false, players[i]);
+    }
+
+    @Benchmark
+    public int wrongClick() {
+        int i = cursor++ & (PROBES - 1);
+        return decide(x[i], y[i], z[i], true, false, players[i]);
+    }
+
+    @Benchmark
+    public int onCooldown() {
+        int i = cursor++ & (PROBES - 1);
+        return decide(x[i], y[i], z[i], false, false, waitingPlayers[i]);
+    }
+
+    @Benchmark
+    public int activated() {
+        int i = cursor++ & (PROBES - 1);
+        return decide(x[i], y[i], z[i], false, false, players[i]);
+    }
+
+    private int decide(int blockX, int blockY, int blockZ, boolean leftClick, boolean sneaking, UUID player) {
+        ChestData chestData = index.get(worldId, blockX, blockY, blockZ);
+        if (chestData == null) {
+            return NOT_A_CHEST;
+        }
+        if (!chestData.getActivationMethod().accepts(leftClick, sneaking)) {
+            return WRONG_CLICK;
+        }
+        if (chestData.getRequiredItem() != null) {
+            return ITEM_REQUIRED;
+        }
+        if (cooldowns.get(chestData.getChestUUID(), player) > now) {
+            return ON_COOLDOWN;
+        }
+        if (chestData.getCompiledCommands().isEmpty()) {
+            return NOT_CONFIGURED;
+        }
+        AtomicLong state = chestData.getRateLimitState();
+        if (!perChest.tryAcquire(state, System.nanoTime() - origin)) {
+            return RATE_LIMITED;
+        }
+        return ACTIVATED;
+    }
+}
@@ -0,0 +1,112 @@
+package com.commandchest.benchmarks;
+
+import com.commandchest.managers.ChestIndex;
+import com.commandchest.models.ChestData;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the "is this block a configured chest?" check that runs on every interact event,
+ * for the chunk-keyed index versus the old {@code HashMap<Location, ChestData>}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChestLookupBenchmark {
+
+    private static final int PROBES = 1024; // power of two, probes are cycled with a mask
+
+    @Param({"100", "10000"})
+    public int chests;
+
+    private ChestIndex index;
+    private Map<Location, ChestData> locationMap;
+    private UUID worldId;
+
+    private final int[] hitX = new int[PROBES];
+    private final int[] hitY = new int[PROBES];
+    private final int[] hitZ = new int[PROBES];
+    private final int[] missX = new int[PROBES];
+    private final int[] missY = new int[PROBES];
+    private final int[] missZ = new int[PROBES];
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        World world = StandIns.world("world");
+        worldId = world.getUID();
+        index = new ChestIndex();
+        locationMap = new HashMap<>();
+
+        // Chests clustered around spawn, like a hub
+        Random random = new Random(42);
+        List<int[]> placed = new ArrayList<>();
+        while (placed.size() < chests) {
+            int x = random.nextInt(512) - 256;
+            int y = 60 + random.nextInt(16);
+            int z = random.nextInt(512) - 256;
+            if (index.get(worldId, x, y, z) != null) {
+                continue;
+            }
+            ChestData chestData = new ChestData(UUID.randomUUID(), new Location(world, x, y, z));
+            index.put(chestData);
+            // Worldless keys: the stand-in world's hashCode goes through a proxy, which would
+            // make the old path look slower than it is on a real server
+            locationMap.put(new Location(null, x, y, z), chestData);
+            placed.add(new int[]{x, y, z});
+        }
+
+        for (int i = 0; i < PROBES; i++) {
+            int[] hit = placed.get(i % placed.size());
+            hitX[i] = hit[0];
+            hitY[i] = hit[1];
+            hitZ[i] = hit[2];
+        }
+
+        // Misses: clicks anywhere in a 4096 block square, so most land in chunks without chests
+        for (int i = 0; i < PROBES; i++) {
+            int x;
+            int y;
+            int z;
+            do {
+                x = random.nextInt(4096) - 2048;
+                y = 60 + random.nextInt(16);
+                z = random.nextInt(4096) - 2048;
+            } while (index.get(worldId, x, y, z) != null);
+            missX[i] = x;
+            missY[i] = y;
+            missZ[i] = z;
+        }
+    }
+
+    @Benchmark
+    public ChestData indexMiss() {
+        int i = cursor++ & (PROBES - 1);
+        return index.get(worldId, missX[i], missY[i], missZ[i]);
+    }
+
+    @Benchmark
+    public ChestData locationMapMiss() {
+        int i = cursor++ & (PROBES - 1);
+        return locationMap.get(new Location(null, missX[i], missY[i], missZ[i]));
+    }
+
+    @Benchmark
+    public ChestData indexHit() {
+        int i = cursor++ & (PROBES - 1);
+        return index.get(worldId, hitX[i], hitY[i], hitZ[i]);
+    }
+
+    @Benchmark
+    public ChestData locationMapHit() {
+        int i = cursor++ & (PROBES - 1);
+        return locationMap.get(new Location(null, hitX[i], hitY[i], hitZ[i]));
+    }
+}
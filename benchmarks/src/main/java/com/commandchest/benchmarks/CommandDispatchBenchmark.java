@@ -0,0 +1,75 @@
+package com.commandchest.benchmarks;
+
+import com.commandchest.models.CommandTemplate;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.SimpleCommandMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running a constant chest command through the command map (split the text, look up the label, copy the
+ * arguments) versus calling the command resolved at load time with its pre-split arguments.
+ * The command itself does nothing, so the numbers are the dispatch overhead per activation.
+ * On a real server {@code dispatchCommand} adds its own work on top of the command map path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandDispatchBenchmark {
+
+    @Param({"100", "1000"})
+    public int registeredCommands;
+
+    @Param({"reward claim daily", "crate give key vote 1 silent"})
+    public String commandLine;
+
+    private SimpleCommandMap commandMap;
+    private CommandSender sender;
+    private CommandTemplate template;
+    private Command target;
+
+    @Setup
+    public void setup() {
+        Map<String, Command> knownCommands = new HashMap<>();
+        commandMap = new SimpleCommandMap(StandIns.server(), knownCommands);
+        sender = StandIns.sender();
+
+        // A busy server has many plugin commands and aliases in the map
+        for (int i = 0; i < registeredCommands; i++) {
+            knownCommands.put("command" + i, new NoOpCommand("command" + i));
+        }
+        template = CommandTemplate.compile(commandLine);
+        target = new NoOpCommand(template.getLabel());
+        knownCommands.put(template.getLabel(), target);
+    }
+
+    @Benchmark
+    public boolean commandMap() {
+        // A constant step renders to its source text without looking at the player or chest
+        return commandMap.dispatch(sender, template.render(null, null, 0L));
+    }
+
+    @Benchmark
+    public boolean resolved() {
+        return target.execute(sender, template.getLabel(), template.getArguments().clone());
+    }
+
+    private static final class NoOpCommand extends Command {
+
+        NoOpCommand(String name) {
+            super(name);
+        }
+
+        @Override
+        public boolean execute(CommandSender sender, String label, String[] args) {
+            return args.length > 0;
+        }
+    }
+}
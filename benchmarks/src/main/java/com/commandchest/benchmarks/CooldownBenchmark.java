@@ -0,0 +1,74 @@
+package com.commandchest.benchmarks;
+
+import com.commandchest.util.CooldownTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cooldown check of every activation ({@code CooldownManager.isOnCooldown} minus its lock) with
+ * many players tracked: a player still on cooldown, and a player who isn't in the table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CooldownBenchmark {
+
+    private static final int PROBES = 1024; // power of two, probes are cycled with a mask
+    private static final int CHESTS = 100;
+
+    @Param({"10000", "100000", "1000000"})
+    public int trackedPlayers;
+
+    private CooldownTable table;
+    private long now;
+
+    private final UUID[] hitChest = new UUID[PROBES];
+    private final UUID[] hitPlayer = new UUID[PROBES];
+    private final UUID[] missChest = new UUID[PROBES];
+    private final UUID[] missPlayer = new UUID[PROBES];
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        now = System.currentTimeMillis();
+        table = new CooldownTable(now);
+        Random random = new Random(42);
+
+        UUID[] chests = new UUID[CHESTS];
+        for (int i = 0; i < CHESTS; i++) {
+            chests[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+        // Cooldowns from one minute to a day, spread over the chests
+        for (int i = 0; i < trackedPlayers; i++) {
+            UUID chest = chests[random.nextInt(CHESTS)];
+            UUID player = new UUID(random.nextLong(), random.nextLong());
+            table.put(chest, player, now + 60_000L + random.nextInt(86_400_000));
+            if (i < PROBES) {
+                hitChest[i] = chest;
+                hitPlayer[i] = player;
+            }
+        }
+        for (int i = 0; i < PROBES; i++) {
+            missChest[i] = chests[random.nextInt(CHESTS)];
+            missPlayer[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+    }
+
+    @Benchmark
+    public boolean onCooldown() {
+        int i = cursor++ & (PROBES - 1);
+        return table.get(hitChest[i], hitPlayer[i]) > now;
+    }
+
+    @Benchmark
+    public boolean notTracked() {
+        int i = cursor++ & (PROBES - 1);
+        return table.get(missChest[i], missPlayer[i]) > now;
+    }
+}
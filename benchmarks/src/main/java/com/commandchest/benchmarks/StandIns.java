@@ -0,0 +1,64 @@
+package com.commandchest.benchmarks;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+/**
+ * Minimal stand-ins for server objects. Only used while setting up benchmark state,
+ * never inside a measured method, so the proxy overhead doesn't show up in results.
+ */
+final class StandIns {
+
+    private StandIns() {
+    }
+
+    static World world(String name) {
+        UUID uid = UUID.nameUUIDFromBytes(name.getBytes());
+        return (World) Proxy.newProxyInstance(StandIns.class.getClassLoader(), new Class<?>[]{World.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getUID" -> uid;
+                case "getName" -> name;
+                case "hashCode" -> uid.hashCode();
+                case "equals" -> proxy == args[0];
+                case "toString" -> "World{" + name + "}";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    /**
+     * A server or command sender that answers every call with a default value.
+     */
+    static <T> T inert(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(StandIns.class.getClassLoader(), new Class<?>[]{type},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> type.getSimpleName() + "{}";
+                default -> defaultValue(method.getReturnType());
+            }));
+    }
+
+    static Server server() {
+        return inert(Server.class);
+    }
+
+    static CommandSender sender() {
+        return inert(CommandSender.class);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return '\0';
+        return null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.commandchest.benchmarks;
+
+import com.commandchest.storage.ChestRecord;
+import com.commandchest.storage.ChestStore;
+import com.commandchest.storage.LogChestStore;
+import com.commandchest.storage.YamlChestStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Startup (open + load every world) and save cost of the YAML and log stores.
+ * Each chest carries a few activation times, like a chest on a busy server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StoreBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger("StoreBenchmark");
+    private static final String[] WORLDS = {"world", "world_nether", "world_the_end"};
+
+    @Param({"yaml", "log"})
+    public String type;
+
+    @Param({"1000", "10000"})
+    public int chests;
+
+    private Path directory;
+    private List<ChestRecord> records;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("cchest-bench");
+        records = new ArrayList<>(chests);
+        Random random = new Random(42);
+        for (int i = 0; i < chests; i++) {
+            Map<UUID, Long> activations = new HashMap<>();
+            for (int j = 0; j < 5; j++) {
+                activations.put(UUID.randomUUID(), System.currentTimeMillis() - random.nextInt(1_000_000));
+            }
+            records.add(new ChestRecord(UUID.randomUUID(), WORLDS[i % WORLDS.length],
+                random.nextInt(2000) - 1000, 64, random.nextInt(2000) - 1000,
+                List.of("&6Reward Chest", "&7Click me"), true, List.of("[console] give {player} diamond 1"), 60,
+                "RIGHT", "DIAMOND", 1, null, 0L, activations));
+        }
+
+        // The startup benchmark reads what this writes
+        ChestStore store = newStore();
+        store.open();
+        store.save(records);
+        store.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public int startup() throws IOException {
+        ChestStore store = newStore();
+        store.open();
+        int loaded = 0;
+        for (String world : store.getWorldNames()) {
+            loaded += store.loadWorld(world).size();
+        }
+        store.close();
+        return loaded;
+    }
+
+    @Benchmark
+    public void saveAll() throws IOException {
+        ChestStore store = newStore();
+        store.open();
+        store.save(records);
+        store.close();
+    }
+
+    private ChestStore newStore() {
+        if (LogChestStore.TYPE.equals(type)) {
+            return new LogChestStore(directory.resolve("chests.dat").toFile(), LOGGER);
+        }
+        return new YamlChestStore(directory.resolve("chests").toFile(), LOGGER);
+    }
+}
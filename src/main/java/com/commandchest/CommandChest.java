@@ -6,18 +6,41 @@ import com.commandchest.gui.NameEditorGUI;
 import com.commandchest.listeners.ChatInputListener;
 import com.commandchest.listeners.ChestActivationListener;
 import com.commandchest.listeners.ChestBreakListener;
+import com.commandchest.listeners.PaperChatInputListener;
+import com.commandchest.listeners.PluginListener;
 import com.commandchest.listeners.StickClickListener;
+import com.commandchest.listeners.WorldListener;
+import com.commandchest.managers.ActivationQueue;
 import com.commandchest.managers.ChestDataManager;
+import com.commandchest.managers.CommandRunner;
+import com.commandchest.managers.CommandTargets;
 import com.commandchest.managers.CooldownManager;
 import com.commandchest.managers.HologramManager;
+import com.commandchest.managers.HologramScheduler;
+import com.commandchest.managers.RateLimiter;
+import com.commandchest.messages.MessageCatalog;
+import com.commandchest.metrics.Metrics;
+import com.commandchest.metrics.PrometheusExporter;
+import com.commandchest.util.ConfigurationStick;
+import com.commandchest.util.TaskScheduler;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class CommandChest extends JavaPlugin {
 
     private static CommandChest instance;
+    private TaskScheduler taskScheduler;
+    private ConfigurationStick configurationStick;
     private ChestDataManager chestDataManager;
     private HologramManager hologramManager;
+    private HologramScheduler hologramScheduler;
     private CooldownManager cooldownManager;
+    private CommandRunner commandRunner;
+    private CommandTargets commandTargets;
+    private RateLimiter rateLimiter;
+    private ActivationQueue activationQueue;
+    private MessageCatalog messages;
+    private Metrics metrics;
+    private PrometheusExporter prometheusExporter;
     private ChestConfigGUI chestConfigGUI;
     private NameEditorGUI nameEditorGUI;
 
@@ -28,23 +51,51 @@ public class CommandChest extends JavaPlugin {
         // Save default config
         saveDefaultConfig();
         
+        // Region-aware on Folia, the main thread everywhere else
+        this.taskScheduler = new TaskScheduler(this);
+
+        this.configurationStick = new ConfigurationStick(this);
+
+        // Compile messages once; /cchest reload recompiles them
+        this.messages = new MessageCatalog(getConfig());
+        
+        // Counters are always on; managers record into them from the start
+        this.metrics = new Metrics();
+
         // Initialize managers
         this.chestDataManager = new ChestDataManager(this);
         this.hologramManager = new HologramManager(this);
-        this.cooldownManager = new CooldownManager();
+        this.hologramScheduler = new HologramScheduler(this, hologramManager);
+        this.cooldownManager = new CooldownManager(this);
+        this.commandRunner = new CommandRunner(this);
+        this.commandTargets = new CommandTargets(this);
+        this.rateLimiter = new RateLimiter(this);
+        this.activationQueue = new ActivationQueue(this);
         
         // Initialize GUI instances
         this.chestConfigGUI = new ChestConfigGUI(this);
         this.nameEditorGUI = new NameEditorGUI(this);
         
-        // Load all chest configurations
+        // Load cooldowns first so old last-activations found in chest files merge into them
+        cooldownManager.load();
+        cooldownManager.start(getConfig().getLong("storage.save-interval-ticks", 100L));
+        rateLimiter.start();
+        activationQueue.start();
+
+        // Load chest configurations of loaded worlds (other worlds load with WorldLoadEvent)
         chestDataManager.loadAllChests();
         
-        // Create holograms for all loaded chests
-        for (com.commandchest.models.ChestData chestData : chestDataManager.getAllChestData()) {
-            hologramManager.createHologram(chestData);
-        }
+        // Spawn holograms near players a few per tick (logs the time taken once caught up)
+        hologramScheduler.start();
         
+        // Optional Prometheus endpoint, off unless a port is configured
+        int metricsPort = getConfig().getInt("metrics.prometheus-port", 0);
+        if (metricsPort > 0) {
+            this.prometheusExporter = new PrometheusExporter(metrics, activationQueue::size,
+                chestDataManager::getSaveQueueDepth, getLogger());
+            prometheusExporter.start(getConfig().getString("metrics.prometheus-bind", "127.0.0.1"), metricsPort);
+        }
+
         // Register commands
         getCommand("cchest").setExecutor(new CChestCommand(this));
         
@@ -52,21 +103,48 @@ public class CommandChest extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new StickClickListener(this), this);
         getServer().getPluginManager().registerEvents(new ChestActivationListener(this), this);
         getServer().getPluginManager().registerEvents(new ChestBreakListener(this), this);
+        getServer().getPluginManager().registerEvents(new WorldListener(this), this);
+        getServer().getPluginManager().registerEvents(new PluginListener(this), this);
         getServer().getPluginManager().registerEvents(chestConfigGUI, this);
         getServer().getPluginManager().registerEvents(nameEditorGUI, this);
-        getServer().getPluginManager().registerEvents(new ChatInputListener(this, chestConfigGUI, nameEditorGUI), this);
+        ChatInputListener chatInputListener = new ChatInputListener(this, chestConfigGUI, nameEditorGUI);
+        if (PaperChatInputListener.isSupported()) {
+            getServer().getPluginManager().registerEvents(new PaperChatInputListener(chatInputListener), this);
+        } else {
+            getServer().getPluginManager().registerEvents(chatInputListener, this);
+        }
         
         getLogger().info("CommandChest has been enabled!");
     }
 
     @Override
     public void onDisable() {
-        // Save all chest data
+        if (prometheusExporter != null) {
+            prometheusExporter.shutdown();
+        }
+
+        // Drop queued activations before cooldowns are saved, so their cooldowns aren't kept
+        if (activationQueue != null) {
+            activationQueue.shutdown();
+        }
+
+        // Save cooldowns and all chest data, then wait for pending writes
+        if (cooldownManager != null && chestDataManager != null) {
+            cooldownManager.shutdown();
+        }
         if (chestDataManager != null) {
             chestDataManager.saveAllChests();
+            chestDataManager.shutdown();
         }
         
+        if (rateLimiter != null) {
+            rateLimiter.shutdown();
+        }
+
         // Remove all holograms
+        if (hologramScheduler != null) {
+            hologramScheduler.stop();
+        }
         if (hologramManager != null) {
             hologramManager.removeAllHolograms();
         }
@@ -78,6 +156,14 @@ public class CommandChest extends JavaPlugin {
         return instance;
     }
 
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    public ConfigurationStick getConfigurationStick() {
+        return configurationStick;
+    }
+
     public ChestDataManager getChestDataManager() {
         return chestDataManager;
     }
@@ -86,10 +172,38 @@ public class CommandChest extends JavaPlugin {
         return hologramManager;
     }
 
+    public HologramScheduler getHologramScheduler() {
+        return hologramScheduler;
+    }
+
     public CooldownManager getCooldownManager() {
         return cooldownManager;
     }
 
+    public CommandRunner getCommandRunner() {
+        return commandRunner;
+    }
+
+    public CommandTargets getCommandTargets() {
+        return commandTargets;
+    }
+
+    public ActivationQueue getActivationQueue() {
+        return activationQueue;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public MessageCatalog getMessages() {
+        return messages;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
     public ChestConfigGUI getChestConfigGUI() {
         return chestConfigGUI;
     }
@@ -1,17 +1,16 @@
 package com.commandchest.commands;
 
 import com.commandchest.CommandChest;
+import com.commandchest.messages.Message;
+import com.commandchest.metrics.LatencyRecorder;
+import com.commandchest.metrics.Metrics;
 import org.bukkit.ChatColor;
-import org.bukkit.Material;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.Locale;
 
 public class CChestCommand implements CommandExecutor {
 
@@ -23,6 +22,16 @@ public class CChestCommand implements CommandExecutor {
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length > 0 && args[0].equalsIgnoreCase("migrate")) {
+            return handleMigrate(sender, label, args);
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("reload")) {
+            return handleReload(sender);
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+            return handleStats(sender);
+        }
+
         if (!(sender instanceof Player)) {
             sender.sendMessage(ChatColor.RED + "This command can only be used by players.");
             return true;
@@ -31,32 +40,88 @@ public class CChestCommand implements CommandExecutor {
         Player player = (Player) sender;
 
         if (!player.hasPermission("commandchest.use")) {
-            String message = plugin.getConfig().getString("messages.command.no-permission", "&cYou don't have permission to use this command.");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+            plugin.getMessages().send(player, Message.NO_PERMISSION);
             return true;
         }
 
-        // Create configuration stick
-        ItemStack stick = new ItemStack(Material.STICK);
-        ItemMeta meta = stick.getItemMeta();
-        if (meta != null) {
-            meta.setDisplayName(ChatColor.GOLD + "Configuration Stick");
-            List<String> lore = Arrays.asList(
-                    ChatColor.GRAY + "Right-click on a chest",
-                    ChatColor.GRAY + "to configure it."
-            );
-            meta.setLore(lore);
-            // Add custom NBT tag to identify this as the config stick
-            stick.setItemMeta(meta);
+        // Give configuration stick to player
+        player.getInventory().addItem(plugin.getConfigurationStick().create());
+        
+        plugin.getMessages().send(player, Message.STICK_RECEIVED);
+
+        return true;
+    }
+
+    private boolean handleReload(CommandSender sender) {
+        if (!sender.hasPermission("commandchest.admin")) {
+            plugin.getMessages().send(sender, Message.NO_PERMISSION);
+            return true;
         }
 
-        // Give stick to player
-        player.getInventory().addItem(stick);
-        
-        String message = plugin.getConfig().getString("messages.command.stick-received", "&aYou have received the configuration stick!");
-        player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+        plugin.reloadConfig();
+        plugin.getMessages().reload(plugin.getConfig());
+        plugin.getChestConfigGUI().reload();
+        plugin.getNameEditorGUI().reload();
+        plugin.getMessages().send(sender, Message.RELOADED);
+        return true;
+    }
+
+    private boolean handleStats(CommandSender sender) {
+        if (!sender.hasPermission("commandchest.admin")) {
+            plugin.getMessages().send(sender, Message.NO_PERMISSION);
+            return true;
+        }
 
+        Metrics metrics = plugin.getMetrics();
+        sender.sendMessage(ChatColor.GOLD + "CommandChest stats since startup:");
+        sender.sendMessage(describe("Chest clicks", metrics.getInteractTime().snapshot()));
+        StringBuilder outcomes = new StringBuilder(ChatColor.GRAY + "  ");
+        for (Metrics.Outcome outcome : Metrics.Outcome.values()) {
+            if (outcomes.length() > 4) {
+                outcomes.append(", ");
+            }
+            outcomes.append(outcome.getLabel()).append(' ').append(metrics.getInteractions(outcome));
+        }
+        sender.sendMessage(outcomes.toString());
+        sender.sendMessage(describe("Command steps", metrics.getDispatchTime().snapshot()));
+        sender.sendMessage(describe("World loads", metrics.getLoadTime().snapshot())
+            + ChatColor.GRAY + ", " + metrics.getChestsLoaded() + " chest(s)");
+        sender.sendMessage(describe("Save batches", metrics.getSaveTime().snapshot())
+            + ChatColor.GRAY + ", " + metrics.getChestsSaved() + " chest(s)");
+        sender.sendMessage(ChatColor.YELLOW + "Holograms: " + ChatColor.WHITE + metrics.getHologramsCreated()
+            + " created, " + metrics.getHologramsRemoved() + " removed");
+        sender.sendMessage(ChatColor.YELLOW + "Queued: " + ChatColor.WHITE + plugin.getActivationQueue().size()
+            + " activation(s), " + plugin.getChestDataManager().getSaveQueueDepth() + " chest write(s)");
         return true;
     }
-}
 
+    private static String describe(String name, LatencyRecorder.Snapshot snapshot) {
+        return ChatColor.YELLOW + name + ": " + ChatColor.WHITE + snapshot.getCount()
+            + ChatColor.GRAY + " (mean " + micros(Math.round(snapshot.getMeanNanos()))
+            + ", p50 " + micros(snapshot.getPercentileNanos(0.5))
+            + ", p99 " + micros(snapshot.getPercentileNanos(0.99))
+            + ", max " + micros(snapshot.getMaxNanos()) + ")";
+    }
+
+    private static String micros(long nanos) {
+        if (nanos >= 10_000_000L) {
+            return String.format(Locale.ROOT, "%.1f ms", nanos / 1_000_000.0);
+        }
+        return String.format(Locale.ROOT, "%.1f µs", nanos / 1_000.0);
+    }
+
+    private boolean handleMigrate(CommandSender sender, String label, String[] args) {
+        if (!sender.hasPermission("commandchest.admin")) {
+            plugin.getMessages().send(sender, Message.NO_PERMISSION);
+            return true;
+        }
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "Usage: /" + label + " migrate <yaml|log>");
+            return true;
+        }
+
+        sender.sendMessage(ChatColor.YELLOW + "Copying chests to " + args[1].toLowerCase(Locale.ENGLISH) + " storage...");
+        plugin.getChestDataManager().migrateTo(args[1], result -> sender.sendMessage(ChatColor.YELLOW + result));
+        return true;
+    }
+}
@@ -1,6 +1,7 @@
 package com.commandchest.gui;
 
 import com.commandchest.CommandChest;
+import com.commandchest.messages.Message;
 import com.commandchest.models.ChestData;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -16,12 +17,14 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ChestConfigGUI implements Listener {
 
     private final CommandChest plugin;
     private final Map<UUID, ChestData> editingPlayers;
     private final Map<UUID, String> chatInputWaiting;
+    private volatile Layout layout; // swapped as a whole on reload
 
     // Slot constants
     private static final int SLOT_NAME = 10;
@@ -38,15 +41,33 @@ public class ChestConfigGUI implements Listener {
 
     public ChestConfigGUI(CommandChest plugin) {
         this.plugin = plugin;
-        this.editingPlayers = new HashMap<>();
-        this.chatInputWaiting = new HashMap<>();
+        this.editingPlayers = new ConcurrentHashMap<>();
+        this.chatInputWaiting = new ConcurrentHashMap<>();
+        reload();
     }
 
+    /**
+     * Shows the chest's settings. If the player already has this GUI open, only the changed buttons are
+     * updated in place instead of opening a new inventory.
+     */
     public void openGUI(Player player, ChestData chestData) {
-        Inventory inv = plugin.getServer().createInventory(null, 54, 
-            ChatColor.translateAlternateColorCodes('&', 
-                plugin.getConfig().getString("messages.gui.main-title", "&6Chest Configuration")));
+        editingPlayers.put(player.getUniqueId(), chestData);
 
+        Inventory open = player.getOpenInventory().getTopInventory();
+        if (GuiHolder.isOwnedBy(open, this)) {
+            render(open, chestData);
+            return;
+        }
+
+        Inventory inv = layout.template().create(plugin.getServer(), this, plugin.getMessages().get(Message.GUI_MAIN_TITLE));
+        render(inv, chestData);
+        player.openInventory(inv);
+    }
+
+    /**
+     * Rebuilds the static parts of the GUI from the current messages.
+     */
+    public void reload() {
         // Fill background with gray glass panes
         ItemStack background = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
         ItemMeta bgMeta = background.getItemMeta();
@@ -54,65 +75,60 @@ public class ChestConfigGUI implements Listener {
             bgMeta.setDisplayName(" ");
             background.setItemMeta(bgMeta);
         }
-        for (int i = 0; i < 54; i++) {
-            inv.setItem(i, background);
+        ItemStack[] contents = new ItemStack[54];
+        Arrays.fill(contents, background);
+
+        // Delete, save and close buttons never change
+        contents[SLOT_DELETE] = createDeleteButton();
+        contents[SLOT_SAVE] = createSaveButton();
+        contents[SLOT_CLOSE] = createCloseButton();
+
+        // Both states of every activation button
+        ChestData.ActivationMethod[] methods = ChestData.ActivationMethod.values();
+        ItemStack[] enabled = new ItemStack[methods.length];
+        ItemStack[] disabled = new ItemStack[methods.length];
+        for (ChestData.ActivationMethod method : methods) {
+            enabled[method.ordinal()] = createActivationButton(method, true);
+            disabled[method.ordinal()] = createActivationButton(method, false);
         }
 
-        // Name button
-        inv.setItem(SLOT_NAME, createNameButton(chestData));
-
-        // Command button
-        inv.setItem(SLOT_COMMAND, createCommandButton(chestData));
-
-        // Cooldown button
-        inv.setItem(SLOT_COOLDOWN, createCooldownButton(chestData));
+        this.layout = new Layout(new GuiTemplate(contents), enabled, disabled, createItemPlaceholder());
+    }
 
-        // Activation method buttons
-        inv.setItem(SLOT_ACTIVATION_LEFT, createActivationButton(chestData, ChestData.ActivationMethod.LEFT));
-        inv.setItem(SLOT_ACTIVATION_RIGHT, createActivationButton(chestData, ChestData.ActivationMethod.RIGHT));
-        inv.setItem(SLOT_ACTIVATION_BOTH, createActivationButton(chestData, ChestData.ActivationMethod.BOTH));
-        inv.setItem(SLOT_ACTIVATION_SHIFT, createActivationButton(chestData, ChestData.ActivationMethod.SHIFT));
+    private void render(Inventory inv, ChestData chestData) {
+        Layout layout = this.layout;
+        GuiTemplate.update(inv, SLOT_NAME, createNameButton(chestData));
+        GuiTemplate.update(inv, SLOT_COMMAND, createCommandButton(chestData));
+        GuiTemplate.update(inv, SLOT_COOLDOWN, createCooldownButton(chestData));
 
-        // Item requirement slot
-        if (chestData.getRequiredItem() != null) {
-            inv.setItem(SLOT_ITEM, chestData.getRequiredItem().clone());
-        } else {
-            ItemStack itemSlot = new ItemStack(Material.BARRIER);
-            ItemMeta itemMeta = itemSlot.getItemMeta();
-            if (itemMeta != null) {
-                itemMeta.setDisplayName(ChatColor.translateAlternateColorCodes('&',
-                    plugin.getConfig().getString("messages.gui.button-item", "&eRequired Item")));
-                itemMeta.setLore(Arrays.asList(
-                    ChatColor.translateAlternateColorCodes('&',
-                        plugin.getConfig().getString("messages.gui.description-item", "&7Place item here to require it"))
-                ));
-                itemSlot.setItemMeta(itemMeta);
-            }
-            inv.setItem(SLOT_ITEM, itemSlot);
+        for (ChestData.ActivationMethod method : ChestData.ActivationMethod.values()) {
+            ItemStack[] buttons = chestData.getActivationMethod() == method ? layout.enabled() : layout.disabled();
+            GuiTemplate.update(inv, activationSlot(method), buttons[method.ordinal()]);
         }
 
-        // Delete button
-        inv.setItem(SLOT_DELETE, createDeleteButton());
-
-        // Save button
-        inv.setItem(SLOT_SAVE, createSaveButton());
-
-        // Close button
-        inv.setItem(SLOT_CLOSE, createCloseButton());
+        // Item requirement slot
+        ItemStack requiredItem = chestData.getRequiredItem();
+        GuiTemplate.update(inv, SLOT_ITEM, requiredItem != null ? requiredItem : layout.noItem());
+    }
 
-        editingPlayers.put(player.getUniqueId(), chestData);
-        player.openInventory(inv);
+    private static int activationSlot(ChestData.ActivationMethod method) {
+        switch (method) {
+            case LEFT:
+                return SLOT_ACTIVATION_LEFT;
+            case BOTH:
+                return SLOT_ACTIVATION_BOTH;
+            case SHIFT:
+                return SLOT_ACTIVATION_SHIFT;
+            default:
+                return SLOT_ACTIVATION_RIGHT;
+        }
     }
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
+        if (!GuiHolder.isOwnedBy(event.getInventory(), this)) return;
         if (!(event.getWhoClicked() instanceof Player)) return;
         Player player = (Player) event.getWhoClicked();
-        
-        String title = event.getView().getTitle();
-        String expectedTitle = ChatColor.translateAlternateColorCodes('&',
-            plugin.getConfig().getString("messages.gui.main-title", "&6Chest Configuration"));
-        if (!title.equals(expectedTitle)) return;
 
         // Cancel all interactions when our GUI is open (both top and bottom inventory)
         event.setCancelled(true);
@@ -121,7 +137,7 @@ public class ChestConfigGUI implements Listener {
         
         // Check if this is our custom inventory
         Inventory clickedInventory = event.getClickedInventory();
-        if (clickedInventory == null) return;
+        if (clickedInventory == null || !GuiHolder.isOwnedBy(clickedInventory, this)) return;
 
         ChestData chestData = editingPlayers.get(player.getUniqueId());
         int slot = event.getSlot();
@@ -130,15 +146,16 @@ public class ChestConfigGUI implements Listener {
             // Open name editor - keep chestData in editingPlayers
             player.closeInventory();
             // Small delay to ensure inventory closes properly
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            plugin.getTaskScheduler().runForLater(player, () -> {
                 plugin.getNameEditorGUI().openGUI(player, chestData);
             }, 1L);
             return;
         }
 
         if (slot == SLOT_COMMAND) {
+            // Left-click replaces the chain with one command, right-click appends a step
             // Request command input - set waiting BEFORE closing inventory
-            requestChatInput(player, "command");
+            requestChatInput(player, event.isRightClick() ? "add-command" : "command");
             player.closeInventory();
             return;
         }
@@ -150,55 +167,11 @@ public class ChestConfigGUI implements Listener {
             return;
         }
 
-        if (slot == SLOT_ACTIVATION_LEFT) {
-            chestData.setActivationMethod(ChestData.ActivationMethod.LEFT);
-            // Update the chestData in editingPlayers before reopening
-            editingPlayers.put(player.getUniqueId(), chestData);
-            // Use scheduler to reopen after current inventory closes
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                if (editingPlayers.containsKey(player.getUniqueId())) {
-                    openGUI(player, chestData);
-                }
-            }, 1L);
-            return;
-        }
-
-        if (slot == SLOT_ACTIVATION_RIGHT) {
-            chestData.setActivationMethod(ChestData.ActivationMethod.RIGHT);
-            // Update the chestData in editingPlayers before reopening
-            editingPlayers.put(player.getUniqueId(), chestData);
-            // Use scheduler to reopen after current inventory closes
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                if (editingPlayers.containsKey(player.getUniqueId())) {
-                    openGUI(player, chestData);
-                }
-            }, 1L);
-            return;
-        }
-
-        if (slot == SLOT_ACTIVATION_BOTH) {
-            chestData.setActivationMethod(ChestData.ActivationMethod.BOTH);
-            // Update the chestData in editingPlayers before reopening
-            editingPlayers.put(player.getUniqueId(), chestData);
-            // Use scheduler to reopen after current inventory closes
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                if (editingPlayers.containsKey(player.getUniqueId())) {
-                    openGUI(player, chestData);
-                }
-            }, 1L);
-            return;
-        }
-
-        if (slot == SLOT_ACTIVATION_SHIFT) {
-            chestData.setActivationMethod(ChestData.ActivationMethod.SHIFT);
-            // Update the chestData in editingPlayers before reopening
-            editingPlayers.put(player.getUniqueId(), chestData);
-            // Use scheduler to reopen after current inventory closes
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                if (editingPlayers.containsKey(player.getUniqueId())) {
-                    openGUI(player, chestData);
-                }
-            }, 1L);
+        ChestData.ActivationMethod clickedMethod = activationMethodAt(slot);
+        if (clickedMethod != null) {
+            chestData.setActivationMethod(clickedMethod);
+            // Only the old and the new activation button change
+            render(event.getInventory(), chestData);
             return;
         }
 
@@ -211,11 +184,11 @@ public class ChestConfigGUI implements Listener {
                 // Player is placing an item
                 chestData.setRequiredItem(cursor.clone());
                 event.setCursor(null);
-                openGUI(player, chestData);
+                render(event.getInventory(), chestData);
             } else if (current != null && current.getType() != Material.BARRIER && current.getType() != Material.GRAY_STAINED_GLASS_PANE) {
                 // Player is removing the item (clicking on existing item)
                 chestData.setRequiredItem(null);
-                openGUI(player, chestData);
+                render(event.getInventory(), chestData);
             }
             return;
         }
@@ -226,8 +199,7 @@ public class ChestConfigGUI implements Listener {
             plugin.getHologramManager().removeHologram(chestData.getLocation());
             editingPlayers.remove(player.getUniqueId());
             player.closeInventory();
-            String message = plugin.getConfig().getString("messages.config.chest-deleted", "&aChest configuration deleted.");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+            plugin.getMessages().send(player, Message.CHEST_DELETED);
             return;
         }
 
@@ -237,8 +209,7 @@ public class ChestConfigGUI implements Listener {
             plugin.getHologramManager().updateHologram(chestData);
             editingPlayers.remove(player.getUniqueId());
             player.closeInventory();
-            String message = plugin.getConfig().getString("messages.config.chest-configured", "&aChest configured successfully!");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+            plugin.getMessages().send(player, Message.CHEST_CONFIGURED);
             return;
         }
 
@@ -251,36 +222,25 @@ public class ChestConfigGUI implements Listener {
 
     @EventHandler
     public void onInventoryDrag(InventoryDragEvent event) {
-        if (!(event.getWhoClicked() instanceof Player)) return;
-        Player player = (Player) event.getWhoClicked();
-        
-        String title = event.getView().getTitle();
-        String expectedTitle = ChatColor.translateAlternateColorCodes('&',
-            plugin.getConfig().getString("messages.gui.main-title", "&6Chest Configuration"));
-        if (title.equals(expectedTitle)) {
+        if (GuiHolder.isOwnedBy(event.getInventory(), this)) {
             event.setCancelled(true);
         }
     }
 
     @EventHandler
     public void onInventoryClose(InventoryCloseEvent event) {
-        Player player = (Player) event.getPlayer();
-        String title = event.getView().getTitle();
-        String expectedTitle = ChatColor.translateAlternateColorCodes('&',
-            plugin.getConfig().getString("messages.gui.main-title", "&6Chest Configuration"));
-        if (title.equals(expectedTitle)) {
+        if (GuiHolder.isOwnedBy(event.getInventory(), this)) {
+            Player player = (Player) event.getPlayer();
             // Don't remove from editingPlayers immediately - keep it for chat input or GUI reopening
             // Only remove if not waiting for chat input
             if (!chatInputWaiting.containsKey(player.getUniqueId())) {
                 // Delay removal to check if GUI is being reopened
-                plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+                plugin.getTaskScheduler().runForLater(player, () -> {
                     // Check if player has our GUI open (was reopened)
-                    if (player.getOpenInventory() != null) {
-                        String openTitle = player.getOpenInventory().getTitle();
-                        if (openTitle.equals(expectedTitle)) {
-                            // GUI was reopened, don't remove
-                            return;
-                        }
+                    if (player.getOpenInventory() != null
+                            && GuiHolder.isOwnedBy(player.getOpenInventory().getTopInventory(), this)) {
+                        // GUI was reopened, don't remove
+                        return;
                     }
                     // No GUI open, safe to remove
                     if (!chatInputWaiting.containsKey(player.getUniqueId())) {
@@ -291,15 +251,14 @@ public class ChestConfigGUI implements Listener {
         }
     }
 
-    public void handleChatInput(Player player, String input) {
-        String type = chatInputWaiting.remove(player.getUniqueId());
-        if (type == null) return;
-
+    /**
+     * Applies an answer claimed with {@link #claimChatInput}. Runs on the player's thread.
+     */
+    public void handleChatInput(Player player, String type, String input) {
         ChestData chestData = editingPlayers.get(player.getUniqueId());
         if (chestData == null) {
             // If chestData was lost, we can't continue
-            String message = plugin.getConfig().getString("messages.chat.cancel-input", "&cConfiguration cancelled.");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+            plugin.getMessages().send(player, Message.CANCEL_INPUT);
             editingPlayers.remove(player.getUniqueId());
             return;
         }
@@ -307,13 +266,16 @@ public class ChestConfigGUI implements Listener {
         // Ensure chestData stays in editingPlayers
         editingPlayers.put(player.getUniqueId(), chestData);
 
-        if (type.equals("command")) {
-            chestData.setCommand(input);
-            String message = plugin.getConfig().getString("messages.chat.command-set", "&aCommand set to: &e{command}")
-                .replace("{command}", input);
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+        if (type.equals("command") || type.equals("add-command")) {
+            if (type.equals("command")) {
+                chestData.setCommands(List.of(input));
+                plugin.getMessages().send(player, Message.COMMAND_SET, input);
+            } else {
+                chestData.addCommand(input);
+                plugin.getMessages().send(player, Message.COMMAND_ADDED, input);
+            }
             // Reopen GUI after a small delay to ensure chat is processed
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            plugin.getTaskScheduler().runForLater(player, () -> {
                 if (editingPlayers.containsKey(player.getUniqueId())) {
                     openGUI(player, chestData);
                 }
@@ -322,20 +284,17 @@ public class ChestConfigGUI implements Listener {
             try {
                 int cooldown = Integer.parseInt(input);
                 chestData.setCooldown(cooldown);
-                String message = plugin.getConfig().getString("messages.chat.cooldown-set", "&aCooldown set to: &e{cooldown} seconds")
-                    .replace("{cooldown}", String.valueOf(cooldown));
-                player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+                plugin.getMessages().send(player, Message.COOLDOWN_SET, cooldown);
                 // Reopen GUI after a small delay to ensure chat is processed
-                plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+                plugin.getTaskScheduler().runForLater(player, () -> {
                     if (editingPlayers.containsKey(player.getUniqueId())) {
                         openGUI(player, chestData);
                     }
                 }, 1L);
             } catch (NumberFormatException e) {
-                String message = plugin.getConfig().getString("messages.chat.invalid-cooldown", "&cInvalid cooldown. Please enter a number.");
-                player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+                plugin.getMessages().send(player, Message.INVALID_COOLDOWN);
                 // Reopen GUI after a small delay to ensure chat is processed
-                plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+                plugin.getTaskScheduler().runForLater(player, () -> {
                     if (editingPlayers.containsKey(player.getUniqueId())) {
                         openGUI(player, chestData);
                     }
@@ -344,30 +303,30 @@ public class ChestConfigGUI implements Listener {
         }
     }
 
-    public boolean isWaitingForInput(Player player) {
-        return chatInputWaiting.containsKey(player.getUniqueId());
+    /**
+     * Returns the prompt the player is answering and stops waiting for it, or null if there is none.
+     * Called from the chat thread.
+     */
+    public String claimChatInput(Player player) {
+        return chatInputWaiting.remove(player.getUniqueId());
     }
 
     private void requestChatInput(Player player, String type) {
         chatInputWaiting.put(player.getUniqueId(), type);
-        String message;
-        if (type.equals("command")) {
-            message = plugin.getConfig().getString("messages.chat.enter-command", "&aPlease type the command to execute (without /):");
+        if (type.equals("command") || type.equals("add-command")) {
+            plugin.getMessages().send(player, Message.ENTER_COMMAND);
         } else {
-            message = plugin.getConfig().getString("messages.chat.enter-cooldown", "&aPlease type the cooldown in seconds:");
+            plugin.getMessages().send(player, Message.ENTER_COOLDOWN);
         }
-        player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
     }
 
     private ItemStack createNameButton(ChestData chestData) {
         ItemStack item = new ItemStack(Material.NAME_TAG);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.button-name", "&eChest Name")));
+            meta.setDisplayName(plugin.getMessages().get(Message.BUTTON_NAME));
             List<String> lore = new ArrayList<>();
-            lore.add(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.description-name", "&7Click to edit the chest name")));
+            lore.add(plugin.getMessages().get(Message.DESCRIPTION_NAME));
             if (!chestData.getNameLines().isEmpty()) {
                 lore.add("");
                 lore.add(ChatColor.GRAY + "Current lines: " + chestData.getNameLines().size());
@@ -383,14 +342,15 @@ public class ChestConfigGUI implements Listener {
         ItemStack item = new ItemStack(Material.COMMAND_BLOCK);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.button-command", "&eCommand")));
+            meta.setDisplayName(plugin.getMessages().get(Message.BUTTON_COMMAND));
             List<String> lore = new ArrayList<>();
-            lore.add(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.description-command", "&7Click to set the command")));
-            if (!chestData.getCommand().isEmpty()) {
+            lore.add(plugin.getMessages().get(Message.DESCRIPTION_COMMAND));
+            if (!chestData.getCommands().isEmpty()) {
                 lore.add("");
-                lore.add(ChatColor.GRAY + "Current: " + ChatColor.WHITE + chestData.getCommand());
+                lore.add(ChatColor.GRAY + "Current:");
+                for (String command : chestData.getCommands()) {
+                    lore.add(ChatColor.WHITE + command);
+                }
             }
             meta.setLore(lore);
             item.setItemMeta(meta);
@@ -402,11 +362,9 @@ public class ChestConfigGUI implements Listener {
         ItemStack item = new ItemStack(Material.CLOCK);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.button-cooldown", "&eCooldown")));
+            meta.setDisplayName(plugin.getMessages().get(Message.BUTTON_COOLDOWN));
             List<String> lore = new ArrayList<>();
-            lore.add(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.description-cooldown", "&7Click to set cooldown (seconds)")));
+            lore.add(plugin.getMessages().get(Message.DESCRIPTION_COOLDOWN));
             lore.add("");
             lore.add(ChatColor.GRAY + "Current: " + ChatColor.WHITE + chestData.getCooldown() + " seconds");
             meta.setLore(lore);
@@ -415,36 +373,39 @@ public class ChestConfigGUI implements Listener {
         return item;
     }
 
-    private ItemStack createActivationButton(ChestData chestData, ChestData.ActivationMethod method) {
+    private static ChestData.ActivationMethod activationMethodAt(int slot) {
+        for (ChestData.ActivationMethod method : ChestData.ActivationMethod.values()) {
+            if (activationSlot(method) == slot) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private ItemStack createActivationButton(ChestData.ActivationMethod method, boolean enabled) {
         Material material;
-        String descriptionKey;
-        String buttonKey;
+        Message description;
         
         switch (method) {
             case LEFT:
                 material = Material.LEVER;
-                descriptionKey = "messages.gui.description-activation-left";
-                buttonKey = "messages.gui.button-activation";
+                description = Message.DESCRIPTION_ACTIVATION_LEFT;
                 break;
             case RIGHT:
                 material = Material.STONE_BUTTON;
-                descriptionKey = "messages.gui.description-activation-right";
-                buttonKey = "messages.gui.button-activation";
+                description = Message.DESCRIPTION_ACTIVATION_RIGHT;
                 break;
             case BOTH:
                 material = Material.TRIPWIRE_HOOK;
-                descriptionKey = "messages.gui.description-activation-both";
-                buttonKey = "messages.gui.button-activation";
+                description = Message.DESCRIPTION_ACTIVATION_BOTH;
                 break;
             case SHIFT:
                 material = Material.PISTON;
-                descriptionKey = "messages.gui.description-activation-shift";
-                buttonKey = "messages.gui.button-activation";
+                description = Message.DESCRIPTION_ACTIVATION_SHIFT;
                 break;
             default:
                 material = Material.STONE_BUTTON;
-                descriptionKey = "messages.gui.description-activation-right";
-                buttonKey = "messages.gui.button-activation";
+                description = Message.DESCRIPTION_ACTIVATION_RIGHT;
         }
 
         ItemStack item = new ItemStack(material);
@@ -453,15 +414,12 @@ public class ChestConfigGUI implements Listener {
             String name = method.name() + " Click";
             meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', "&e" + name));
             List<String> lore = new ArrayList<>();
-            lore.add(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString(descriptionKey, "&7Click to set activation method")));
+            lore.add(plugin.getMessages().get(description));
             lore.add("");
-            if (chestData.getActivationMethod() == method) {
-                lore.add(ChatColor.translateAlternateColorCodes('&',
-                    plugin.getConfig().getString("messages.gui.status-enabled", "&aEnabled")));
+            if (enabled) {
+                lore.add(plugin.getMessages().get(Message.STATUS_ENABLED));
             } else {
-                lore.add(ChatColor.translateAlternateColorCodes('&',
-                    plugin.getConfig().getString("messages.gui.status-disabled", "&cDisabled")));
+                lore.add(plugin.getMessages().get(Message.STATUS_DISABLED));
             }
             meta.setLore(lore);
             item.setItemMeta(meta);
@@ -469,15 +427,26 @@ public class ChestConfigGUI implements Listener {
         return item;
     }
 
+    private ItemStack createItemPlaceholder() {
+        ItemStack itemSlot = new ItemStack(Material.BARRIER);
+        ItemMeta itemMeta = itemSlot.getItemMeta();
+        if (itemMeta != null) {
+            itemMeta.setDisplayName(plugin.getMessages().get(Message.BUTTON_ITEM));
+            itemMeta.setLore(Arrays.asList(
+                plugin.getMessages().get(Message.DESCRIPTION_ITEM)
+            ));
+            itemSlot.setItemMeta(itemMeta);
+        }
+        return itemSlot;
+    }
+
     private ItemStack createDeleteButton() {
         ItemStack item = new ItemStack(Material.RED_WOOL);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.button-delete", "&cDelete Configuration")));
+            meta.setDisplayName(plugin.getMessages().get(Message.BUTTON_DELETE));
             meta.setLore(Arrays.asList(
-                ChatColor.translateAlternateColorCodes('&',
-                    plugin.getConfig().getString("messages.gui.description-delete", "&7Click to delete this configuration"))
+                plugin.getMessages().get(Message.DESCRIPTION_DELETE)
             ));
             item.setItemMeta(meta);
         }
@@ -488,11 +457,9 @@ public class ChestConfigGUI implements Listener {
         ItemStack item = new ItemStack(Material.GREEN_WOOL);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.button-save", "&aSave")));
+            meta.setDisplayName(plugin.getMessages().get(Message.BUTTON_SAVE));
             meta.setLore(Arrays.asList(
-                ChatColor.translateAlternateColorCodes('&',
-                    plugin.getConfig().getString("messages.gui.description-save", "&7Click to save changes"))
+                plugin.getMessages().get(Message.DESCRIPTION_SAVE)
             ));
             item.setItemMeta(meta);
         }
@@ -503,15 +470,15 @@ public class ChestConfigGUI implements Listener {
         ItemStack item = new ItemStack(Material.BARRIER);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.button-close", "&7Close")));
+            meta.setDisplayName(plugin.getMessages().get(Message.BUTTON_CLOSE));
             meta.setLore(Arrays.asList(
-                ChatColor.translateAlternateColorCodes('&',
-                    plugin.getConfig().getString("messages.gui.description-close", "&7Click to close"))
+                plugin.getMessages().get(Message.DESCRIPTION_CLOSE)
             ));
             item.setItemMeta(meta);
         }
         return item;
     }
-}
 
+    private record Layout(GuiTemplate template, ItemStack[] enabled, ItemStack[] disabled, ItemStack noItem) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.commandchest.gui;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+/**
+ * Holder of every inventory opened by one of our GUIs. Inventory events check for it with an
+ * {@code instanceof} instead of comparing titles, so events of other inventories, including a renamed
+ * chest with the same title, are skipped without touching the config.
+ */
+final class GuiHolder implements InventoryHolder {
+
+    // Paper can look up the holder of a block inventory without taking a snapshot of the block
+    private static final boolean HOLDER_WITHOUT_SNAPSHOT = hasHolderWithoutSnapshot();
+
+    private final Object gui;
+    private Inventory inventory;
+
+    GuiHolder(Object gui) {
+        this.gui = gui;
+    }
+
+    /**
+     * True if the inventory was opened by the given GUI.
+     */
+    static boolean isOwnedBy(Inventory inventory, Object gui) {
+        if (inventory == null) {
+            return false;
+        }
+        InventoryHolder holder = HOLDER_WITHOUT_SNAPSHOT ? inventory.getHolder(false) : inventory.getHolder();
+        return holder instanceof GuiHolder && ((GuiHolder) holder).gui == gui;
+    }
+
+    void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    private static boolean hasHolderWithoutSnapshot() {
+        try {
+            Inventory.class.getMethod("getHolder", boolean.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.commandchest.gui;
+
+import org.bukkit.Server;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Objects;
+
+/**
+ * The part of a GUI that is the same for every chest: the background and the static buttons. Built once
+ * when the GUI is created and again on {@code /cchest reload}, then copied into each new inventory in
+ * one go. The items are never modified after building; inventories store copies of them.
+ */
+final class GuiTemplate {
+
+    private final ItemStack[] contents;
+
+    GuiTemplate(ItemStack[] contents) {
+        this.contents = contents.clone();
+    }
+
+    /**
+     * Creates an inventory of the GUI, recognisable with {@link GuiHolder#isOwnedBy}.
+     */
+    Inventory create(Server server, Object gui, String title) {
+        GuiHolder holder = new GuiHolder(gui);
+        Inventory inventory = server.createInventory(holder, contents.length, title);
+        holder.setInventory(inventory);
+        inventory.setContents(contents);
+        return inventory;
+    }
+
+    ItemStack get(int slot) {
+        return contents[slot];
+    }
+
+    /**
+     * Puts the item in the slot unless the slot already holds an equal item, so refreshing an open GUI
+     * only touches the slots whose button actually changed.
+     */
+    static void update(Inventory inventory, int slot, ItemStack item) {
+        if (!Objects.equals(inventory.getItem(slot), item)) {
+            inventory.setItem(slot, item);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.commandchest.gui;
 
 import com.commandchest.CommandChest;
+import com.commandchest.messages.Message;
 import com.commandchest.models.ChestData;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -15,12 +16,14 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NameEditorGUI implements Listener {
 
     private final CommandChest plugin;
     private final Map<UUID, ChestData> editingPlayers;
     private final Map<UUID, String> chatInputWaiting;
+    private volatile GuiTemplate template; // swapped as a whole on reload
 
     private static final int SLOT_ADD_LINE = 4;
     private static final int SLOT_TOGGLE_VISIBILITY = 49;
@@ -29,15 +32,33 @@ public class NameEditorGUI implements Listener {
 
     public NameEditorGUI(CommandChest plugin) {
         this.plugin = plugin;
-        this.editingPlayers = new HashMap<>();
-        this.chatInputWaiting = new HashMap<>();
+        this.editingPlayers = new ConcurrentHashMap<>();
+        this.chatInputWaiting = new ConcurrentHashMap<>();
+        reload();
     }
 
+    /**
+     * Shows the chest's name lines. If the player already has this GUI open, only the changed slots are
+     * updated in place instead of opening a new inventory.
+     */
     public void openGUI(Player player, ChestData chestData) {
-        Inventory inv = plugin.getServer().createInventory(null, 54,
-            ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.name-editor-title", "&6Edit Chest Name")));
+        editingPlayers.put(player.getUniqueId(), chestData);
+
+        Inventory open = player.getOpenInventory().getTopInventory();
+        if (GuiHolder.isOwnedBy(open, this)) {
+            render(open, chestData);
+            return;
+        }
 
+        Inventory inv = template.create(plugin.getServer(), this, plugin.getMessages().get(Message.GUI_NAME_EDITOR_TITLE));
+        render(inv, chestData);
+        player.openInventory(inv);
+    }
+
+    /**
+     * Rebuilds the static parts of the GUI from the current messages.
+     */
+    public void reload() {
         // Fill background
         ItemStack background = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
         ItemMeta bgMeta = background.getItemMeta();
@@ -45,40 +66,36 @@ public class NameEditorGUI implements Listener {
             bgMeta.setDisplayName(" ");
             background.setItemMeta(bgMeta);
         }
-        for (int i = 0; i < 54; i++) {
-            inv.setItem(i, background);
-        }
+        ItemStack[] contents = new ItemStack[54];
+        Arrays.fill(contents, background);
+
+        // Add line and back buttons never change
+        contents[SLOT_ADD_LINE] = createAddLineButton();
+        contents[SLOT_BACK] = createBackButton();
+
+        this.template = new GuiTemplate(contents);
+    }
 
-        // Display current lines
+    private void render(Inventory inv, ChestData chestData) {
+        GuiTemplate template = this.template;
+
+        // Display current lines; slots of removed lines go back to the background
         List<String> nameLines = chestData.getNameLines();
-        for (int i = 0; i < Math.min(nameLines.size(), 36); i++) {
+        for (int i = 0; i < 36; i++) {
             int slot = START_LINE_SLOTS + i;
-            inv.setItem(slot, createLineItem(nameLines.get(i), i));
+            GuiTemplate.update(inv, slot, i < nameLines.size() ? createLineItem(nameLines.get(i), i) : template.get(slot));
         }
 
-        // Add line button
-        inv.setItem(SLOT_ADD_LINE, createAddLineButton());
-
         // Toggle visibility button
-        inv.setItem(SLOT_TOGGLE_VISIBILITY, createToggleVisibilityButton(chestData));
-
-        // Back button
-        inv.setItem(SLOT_BACK, createBackButton());
-
-        editingPlayers.put(player.getUniqueId(), chestData);
-        player.openInventory(inv);
+        GuiTemplate.update(inv, SLOT_TOGGLE_VISIBILITY, createToggleVisibilityButton(chestData));
     }
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
+        if (!GuiHolder.isOwnedBy(event.getInventory(), this)) return;
         if (!(event.getWhoClicked() instanceof Player)) return;
         Player player = (Player) event.getWhoClicked();
 
-        String title = event.getView().getTitle();
-        String expectedTitle = ChatColor.translateAlternateColorCodes('&',
-            plugin.getConfig().getString("messages.gui.name-editor-title", "&6Edit Chest Name"));
-        if (!title.equals(expectedTitle)) return;
-
         // Cancel all interactions when our GUI is open (both top and bottom inventory)
         event.setCancelled(true);
         
@@ -86,7 +103,7 @@ public class NameEditorGUI implements Listener {
         
         // Check if this is our custom inventory
         Inventory clickedInventory = event.getClickedInventory();
-        if (clickedInventory == null) return;
+        if (clickedInventory == null || !GuiHolder.isOwnedBy(clickedInventory, this)) return;
 
         ChestData chestData = editingPlayers.get(player.getUniqueId());
         int slot = event.getSlot();
@@ -100,7 +117,7 @@ public class NameEditorGUI implements Listener {
 
         if (slot == SLOT_TOGGLE_VISIBILITY) {
             chestData.setNameVisible(!chestData.isNameVisible());
-            openGUI(player, chestData);
+            render(event.getInventory(), chestData);
             return;
         }
 
@@ -118,31 +135,22 @@ public class NameEditorGUI implements Listener {
             if (lineIndex < nameLines.size()) {
                 nameLines.remove(lineIndex);
                 chestData.setNameLines(nameLines);
-                openGUI(player, chestData);
+                render(event.getInventory(), chestData);
             }
         }
     }
 
     @EventHandler
     public void onInventoryDrag(InventoryDragEvent event) {
-        if (!(event.getWhoClicked() instanceof Player)) return;
-        Player player = (Player) event.getWhoClicked();
-        
-        String title = event.getView().getTitle();
-        String expectedTitle = ChatColor.translateAlternateColorCodes('&',
-            plugin.getConfig().getString("messages.gui.name-editor-title", "&6Edit Chest Name"));
-        if (title.equals(expectedTitle)) {
+        if (GuiHolder.isOwnedBy(event.getInventory(), this)) {
             event.setCancelled(true);
         }
     }
 
     @EventHandler
     public void onInventoryClose(InventoryCloseEvent event) {
-        Player player = (Player) event.getPlayer();
-        String title = event.getView().getTitle();
-        String expectedTitle = ChatColor.translateAlternateColorCodes('&',
-            plugin.getConfig().getString("messages.gui.name-editor-title", "&6Edit Chest Name"));
-        if (title.equals(expectedTitle)) {
+        if (GuiHolder.isOwnedBy(event.getInventory(), this)) {
+            Player player = (Player) event.getPlayer();
             // Don't remove from editingPlayers immediately - keep it for chat input
             // Only remove if not waiting for chat input
             if (!chatInputWaiting.containsKey(player.getUniqueId())) {
@@ -151,15 +159,14 @@ public class NameEditorGUI implements Listener {
         }
     }
 
-    public void handleChatInput(Player player, String input) {
-        String type = chatInputWaiting.remove(player.getUniqueId());
-        if (type == null) return;
-
+    /**
+     * Applies an answer claimed with {@link #claimChatInput}. Runs on the player's thread.
+     */
+    public void handleChatInput(Player player, String type, String input) {
         ChestData chestData = editingPlayers.get(player.getUniqueId());
         if (chestData == null) {
             // If chestData was lost, we can't continue
-            String message = plugin.getConfig().getString("messages.chat.cancel-input", "&cConfiguration cancelled.");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+            plugin.getMessages().send(player, Message.CANCEL_INPUT);
             editingPlayers.remove(player.getUniqueId());
             return;
         }
@@ -171,10 +178,9 @@ public class NameEditorGUI implements Listener {
             List<String> nameLines = chestData.getNameLines();
             nameLines.add(input);
             chestData.setNameLines(nameLines);
-            String message = plugin.getConfig().getString("messages.chat.name-line-added", "&aName line added!");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+            plugin.getMessages().send(player, Message.NAME_LINE_ADDED);
             // Reopen GUI after a small delay to ensure chat is processed
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            plugin.getTaskScheduler().runForLater(player, () -> {
                 if (editingPlayers.containsKey(player.getUniqueId())) {
                     openGUI(player, chestData);
                 }
@@ -182,14 +188,17 @@ public class NameEditorGUI implements Listener {
         }
     }
 
-    public boolean isWaitingForInput(Player player) {
-        return chatInputWaiting.containsKey(player.getUniqueId());
+    /**
+     * Returns the prompt the player is answering and stops waiting for it, or null if there is none.
+     * Called from the chat thread.
+     */
+    public String claimChatInput(Player player) {
+        return chatInputWaiting.remove(player.getUniqueId());
     }
 
     private void requestChatInput(Player player, String type) {
         chatInputWaiting.put(player.getUniqueId(), type);
-        String message = plugin.getConfig().getString("messages.chat.enter-name-line", "&aPlease type a line for the chest name:");
-        player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+        plugin.getMessages().send(player, Message.ENTER_NAME_LINE);
     }
 
     private ItemStack createLineItem(String line, int index) {
@@ -210,11 +219,9 @@ public class NameEditorGUI implements Listener {
         ItemStack item = new ItemStack(Material.GREEN_WOOL);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.button-add-line", "&aAdd Line")));
+            meta.setDisplayName(plugin.getMessages().get(Message.BUTTON_ADD_LINE));
             meta.setLore(Arrays.asList(
-                ChatColor.translateAlternateColorCodes('&',
-                    plugin.getConfig().getString("messages.gui.description-add-line", "&7Click to add a new line"))
+                plugin.getMessages().get(Message.DESCRIPTION_ADD_LINE)
             ));
             item.setItemMeta(meta);
         }
@@ -225,18 +232,14 @@ public class NameEditorGUI implements Listener {
         ItemStack item = new ItemStack(chestData.isNameVisible() ? Material.SPYGLASS : Material.ENDER_EYE);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.button-toggle-visibility", "&eToggle Visibility")));
+            meta.setDisplayName(plugin.getMessages().get(Message.BUTTON_TOGGLE_VISIBILITY));
             List<String> lore = new ArrayList<>();
-            lore.add(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.description-toggle-visibility", "&7Click to toggle name visibility")));
+            lore.add(plugin.getMessages().get(Message.DESCRIPTION_TOGGLE_VISIBILITY));
             lore.add("");
             if (chestData.isNameVisible()) {
-                lore.add(ChatColor.translateAlternateColorCodes('&',
-                    plugin.getConfig().getString("messages.gui.status-visible", "&aVisible")));
+                lore.add(plugin.getMessages().get(Message.STATUS_VISIBLE));
             } else {
-                lore.add(ChatColor.translateAlternateColorCodes('&',
-                    plugin.getConfig().getString("messages.gui.status-hidden", "&cHidden")));
+                lore.add(plugin.getMessages().get(Message.STATUS_HIDDEN));
             }
             meta.setLore(lore);
             item.setItemMeta(meta);
@@ -248,11 +251,9 @@ public class NameEditorGUI implements Listener {
         ItemStack item = new ItemStack(Material.ARROW);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&',
-                plugin.getConfig().getString("messages.gui.button-back", "&7Back")));
+            meta.setDisplayName(plugin.getMessages().get(Message.BUTTON_BACK));
             meta.setLore(Arrays.asList(
-                ChatColor.translateAlternateColorCodes('&',
-                    plugin.getConfig().getString("messages.gui.description-back", "&7Click to go back"))
+                plugin.getMessages().get(Message.DESCRIPTION_BACK)
             ));
             item.setItemMeta(meta);
         }
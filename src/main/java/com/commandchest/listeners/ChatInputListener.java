@@ -7,8 +7,14 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
-import org.bukkit.event.player.PlayerChatEvent;
-
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+
+/**
+ * Takes chat messages typed in answer to a GUI prompt. Chat is handled on the async chat thread, so
+ * other players' chat is never moved onto the main thread; only a message that answers a prompt is
+ * handed to the player's thread to be applied. On Paper {@link PaperChatInputListener} is registered
+ * instead and calls {@link #handleChat} from {@code AsyncChatEvent}.
+ */
 public class ChatInputListener implements Listener {
 
     private final CommandChest plugin;
@@ -22,24 +28,30 @@ public class ChatInputListener implements Listener {
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
-    public void onPlayerChat(PlayerChatEvent event) {
-        Player player = event.getPlayer();
+    public void onPlayerChat(AsyncPlayerChatEvent event) {
+        if (handleChat(event.getPlayer(), event.getMessage())) {
+            event.setCancelled(true);
+        }
+    }
 
+    /**
+     * Returns true if the message answers a prompt and must not be shown in chat. Safe to call from
+     * any thread; a prompt is claimed only once, so a second quick message goes to chat as usual.
+     */
+    public boolean handleChat(Player player, String message) {
         // Check if main GUI is waiting for input
-        if (mainGUI.isWaitingForInput(player)) {
-            event.setCancelled(true);
-            String message = event.getMessage();
-            mainGUI.handleChatInput(player, message);
-            return;
+        String type = mainGUI.claimChatInput(player);
+        if (type != null) {
+            plugin.getTaskScheduler().executeFor(player, () -> mainGUI.handleChatInput(player, type, message));
+            return true;
         }
 
         // Check if name editor GUI is waiting for input
-        if (nameEditorGUI.isWaitingForInput(player)) {
-            event.setCancelled(true);
-            String message = event.getMessage();
-            nameEditorGUI.handleChatInput(player, message);
-            return;
+        String nameType = nameEditorGUI.claimChatInput(player);
+        if (nameType != null) {
+            plugin.getTaskScheduler().executeFor(player, () -> nameEditorGUI.handleChatInput(player, nameType, message));
+            return true;
         }
+        return false;
     }
 }
-
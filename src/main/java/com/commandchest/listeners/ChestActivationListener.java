@@ -1,9 +1,10 @@
 package com.commandchest.listeners;
 
 import com.commandchest.CommandChest;
+import com.commandchest.messages.Message;
+import com.commandchest.metrics.Metrics;
 import com.commandchest.models.ChestData;
-import org.bukkit.ChatColor;
-import org.bukkit.Material;
+import com.commandchest.util.ItemSignature;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -16,9 +17,11 @@ import org.bukkit.inventory.ItemStack;
 public class ChestActivationListener implements Listener {
 
     private final CommandChest plugin;
+    private final ItemSignature.Mode itemMatchMode;
 
     public ChestActivationListener(CommandChest plugin) {
         this.plugin = plugin;
+        this.itemMatchMode = ItemSignature.Mode.parse(plugin.getConfig().getString("activations.required-item-match"));
     }
 
     @EventHandler(priority = EventPriority.HIGH)
@@ -33,20 +36,25 @@ public class ChestActivationListener implements Listener {
             return;
         }
 
+        long start = System.nanoTime();
+        Metrics.Outcome outcome = handleClick(event, block);
+        plugin.getMetrics().recordInteract(outcome, System.nanoTime() - start);
+    }
+
+    private Metrics.Outcome handleClick(PlayerInteractEvent event, Block block) {
+        // Most clicks aren't on a configured chest - the index rejects those (usually with one
+        // occupancy bit test) before we look at the player's item
+        ChestData chestData = plugin.getChestDataManager().getChestData(block);
+        if (chestData == null) {
+            return Metrics.Outcome.NOT_A_CHEST;
+        }
+
         Player player = event.getPlayer();
         
         // Skip if player is holding configuration stick (let StickClickListener handle it)
         ItemStack item = player.getInventory().getItemInMainHand();
-        if (item != null && item.getType() == Material.STICK && item.getItemMeta() != null) {
-            if (item.getItemMeta().hasDisplayName() && 
-                item.getItemMeta().getDisplayName().equals(ChatColor.GOLD + "Configuration Stick")) {
-                return; // Let StickClickListener handle this
-            }
-        }
-
-        ChestData chestData = plugin.getChestDataManager().getChestData(block.getLocation());
-        if (chestData == null) {
-            return;
+        if (plugin.getConfigurationStick().isStick(item)) {
+            return Metrics.Outcome.CONFIG_STICK;
         }
 
         // This is a configured chest - prevent normal interaction
@@ -54,87 +62,41 @@ public class ChestActivationListener implements Listener {
 
         // Check activation method
         boolean isLeftClick = event.getAction() == Action.LEFT_CLICK_BLOCK;
-        boolean isRightClick = event.getAction() == Action.RIGHT_CLICK_BLOCK;
-        boolean isShiftClick = player.isSneaking();
-
-        ChestData.ActivationMethod method = chestData.getActivationMethod();
-        boolean shouldActivate = false;
-
-        switch (method) {
-            case LEFT:
-                shouldActivate = isLeftClick && !isShiftClick;
-                break;
-            case RIGHT:
-                shouldActivate = isRightClick && !isShiftClick;
-                break;
-            case BOTH:
-                shouldActivate = !isShiftClick;
-                break;
-            case SHIFT:
-                shouldActivate = isShiftClick;
-                break;
-        }
+        boolean shouldActivate = chestData.getActivationMethod().accepts(isLeftClick, player.isSneaking());
 
         if (!shouldActivate) {
-            String message = plugin.getConfig().getString("messages.activation.activation-method-mismatch",
-                "&cThis chest cannot be activated with this click type.");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
-            return;
+            plugin.getMessages().send(player, Message.ACTIVATION_METHOD_MISMATCH);
+            return Metrics.Outcome.WRONG_METHOD;
         }
 
         // Check item requirement
-        if (chestData.getRequiredItem() != null) {
-            ItemStack heldItem = player.getInventory().getItemInMainHand();
-            if (heldItem == null || 
-                heldItem.getType() != chestData.getRequiredItem().getType() ||
-                !itemsMatch(heldItem, chestData.getRequiredItem())) {
-                String message = plugin.getConfig().getString("messages.activation.item-required",
-                    "&cYou must be holding the required item to use this chest.");
-                player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
-                return;
-            }
+        ItemSignature requiredItem = chestData.getRequiredSignature();
+        if (requiredItem != null && !requiredItem.matches(item, itemMatchMode)) {
+            plugin.getMessages().send(player, Message.ITEM_REQUIRED);
+            return Metrics.Outcome.ITEM_REQUIRED;
         }
 
         // Check cooldown
         if (plugin.getCooldownManager().isOnCooldown(chestData, player.getUniqueId())) {
             long remaining = plugin.getCooldownManager().getRemainingCooldown(chestData, player.getUniqueId());
-            String message = plugin.getConfig().getString("messages.activation.on-cooldown",
-                "&cThis chest is on cooldown. Please wait {time} seconds.")
-                .replace("{time}", String.valueOf(remaining));
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
-            return;
+            plugin.getMessages().send(player, Message.ON_COOLDOWN, remaining);
+            return Metrics.Outcome.ON_COOLDOWN;
         }
 
-        // Execute command
-        String command = chestData.getCommand();
-        if (command == null || command.isEmpty()) {
-            String message = plugin.getConfig().getString("messages.config.chest-not-configured",
-                "&cThis chest is not configured.");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
-            return;
+        if (chestData.getCompiledCommands().isEmpty()) {
+            plugin.getMessages().send(player, Message.CHEST_NOT_CONFIGURED);
+            return Metrics.Outcome.NOT_CONFIGURED;
         }
 
-        // Execute command as player
-        try {
-            plugin.getServer().dispatchCommand(player, command);
-            plugin.getCooldownManager().setLastActivation(chestData, player.getUniqueId());
-            plugin.getChestDataManager().addChestData(chestData); // Save cooldown data
-            
-            String message = plugin.getConfig().getString("messages.activation.command-executed",
-                "&aCommand executed!");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
-        } catch (Exception e) {
-            String message = plugin.getConfig().getString("messages.activation.command-failed",
-                "&cFailed to execute command.");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
-            plugin.getLogger().warning("Failed to execute command for chest: " + e.getMessage());
+        // Check rate limits (per chest, per player, server-wide) last, so only activations spend tokens
+        if (!plugin.getRateLimiter().tryAcquire(chestData, player.getUniqueId())) {
+            plugin.getMessages().send(player, Message.RATE_LIMITED);
+            return Metrics.Outcome.RATE_LIMITED;
         }
-    }
 
-    private boolean itemsMatch(ItemStack item1, ItemStack item2) {
-        // Basic comparison - can be enhanced for NBT data if needed
-        return item1.getType() == item2.getType() &&
-               item1.getAmount() >= item2.getAmount();
+        // Start the cooldown now so further clicks are refused while the commands wait in the queue
+        plugin.getCooldownManager().startCooldown(chestData, player.getUniqueId());
+        plugin.getActivationQueue().enqueue(chestData, player);
+        return Metrics.Outcome.ACTIVATED;
     }
 }
-
@@ -16,7 +16,7 @@ public class ChestBreakListener implements Listener {
     @EventHandler
     public void onBlockBreak(BlockBreakEvent event) {
         // Check if the broken block is a configured chest
-        if (plugin.getChestDataManager().hasChestData(event.getBlock().getLocation())) {
+        if (plugin.getChestDataManager().hasChestData(event.getBlock())) {
             // Remove chest data and hologram
             plugin.getChestDataManager().removeChestData(event.getBlock().getLocation());
             plugin.getHologramManager().removeHologram(event.getBlock().getLocation());
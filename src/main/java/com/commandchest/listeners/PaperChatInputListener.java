@@ -0,0 +1,38 @@
+package com.commandchest.listeners;
+
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Paper's chat event for {@link ChatInputListener}. Listening to the legacy Bukkit chat events on Paper
+ * makes the server convert every message for them, so on Paper only this listener is registered.
+ */
+public class PaperChatInputListener implements Listener {
+
+    private final ChatInputListener chatInput;
+
+    public PaperChatInputListener(ChatInputListener chatInput) {
+        this.chatInput = chatInput;
+    }
+
+    public static boolean isSupported() {
+        try {
+            Class.forName("io.papermc.paper.event.player.AsyncChatEvent");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onPlayerChat(AsyncChatEvent event) {
+        // The typed text, including any & colour codes meant for chest names
+        String message = PlainTextComponentSerializer.plainText().serialize(event.originalMessage());
+        if (chatInput.handleChat(event.getPlayer(), message)) {
+            event.setCancelled(true);
+        }
+    }
+}
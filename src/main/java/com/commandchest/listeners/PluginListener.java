@@ -0,0 +1,35 @@
+package com.commandchest.listeners;
+
+import com.commandchest.CommandChest;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.event.server.ServerLoadEvent;
+
+public class PluginListener implements Listener {
+
+    private final CommandChest plugin;
+
+    public PluginListener(CommandChest plugin) {
+        this.plugin = plugin;
+    }
+
+    // Any of these can change what a command label resolves to, so chest commands are resolved again
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginEnable(PluginEnableEvent event) {
+        plugin.getCommandTargets().invalidate();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        plugin.getCommandTargets().invalidate();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onServerLoad(ServerLoadEvent event) {
+        plugin.getCommandTargets().invalidate();
+    }
+}
@@ -2,8 +2,8 @@ package com.commandchest.listeners;
 
 import com.commandchest.CommandChest;
 import com.commandchest.managers.ChestDataManager;
+import com.commandchest.messages.Message;
 import com.commandchest.models.ChestData;
-import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
@@ -35,12 +35,7 @@ public class StickClickListener implements Listener {
         ItemStack item = player.getInventory().getItemInMainHand();
 
         // Check if holding configuration stick
-        if (item.getType() != Material.STICK || item.getItemMeta() == null) {
-            return;
-        }
-
-        if (!item.getItemMeta().hasDisplayName() || 
-            !item.getItemMeta().getDisplayName().equals(ChatColor.GOLD + "Configuration Stick")) {
+        if (!plugin.getConfigurationStick().isStick(item)) {
             return;
         }
 
@@ -52,25 +47,21 @@ public class StickClickListener implements Listener {
         // Check if it's a container block
         Material blockType = block.getType();
         if (!isContainerBlock(blockType)) {
-            String message = plugin.getConfig().getString("messages.config.invalid-block", 
-                "&cYou can only configure container blocks (chests, barrels, etc.).");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+            plugin.getMessages().send(player, Message.INVALID_BLOCK);
             return;
         }
 
         event.setCancelled(true);
 
         ChestDataManager dataManager = plugin.getChestDataManager();
-        ChestData chestData = dataManager.getChestData(block.getLocation());
+        ChestData chestData = dataManager.getChestData(block);
 
         // Check if shift-clicking on an existing configuration
         boolean isShiftClick = player.isSneaking();
         
         if (isShiftClick && chestData == null) {
             // Shift-clicking on a non-configured chest - inform user
-            String message = plugin.getConfig().getString("messages.config.chest-not-configured",
-                "&cThis chest is not configured. Right-click to configure it.");
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+            plugin.getMessages().send(player, Message.CHEST_NOT_CONFIGURED);
             return;
         }
 
@@ -0,0 +1,64 @@
+package com.commandchest.listeners;
+
+import com.commandchest.CommandChest;
+import com.commandchest.models.ChestData;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+public class WorldListener implements Listener {
+
+    private final CommandChest plugin;
+
+    public WorldListener(CommandChest plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        // Chests of worlds loaded after startup (e.g. by a world manager) are read now;
+        // their holograms are spawned gradually by the scheduler
+        if (!plugin.getChestDataManager().loadWorld(event.getWorld()).isEmpty()) {
+            plugin.getHologramScheduler().requestScan();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        World world = event.getWorld();
+        for (ChestData chestData : plugin.getChestDataManager().getChestsInWorld(world)) {
+            plugin.getHologramManager().removeHologram(chestData.getLocation());
+        }
+        plugin.getChestDataManager().unloadWorld(world);
+    }
+
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        if (!plugin.getChestDataManager().getChestsInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ()).isEmpty()) {
+            // Spawned by the scheduler on the next tick rather than from inside the load
+            plugin.getHologramScheduler().requestScan();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        plugin.getHologramManager().unloadHologramsForChunk(event.getChunk());
+    }
+
+    @EventHandler
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        int removed = plugin.getHologramManager().removeLegacyArmorStands(event.getEntities());
+        if (removed > 0) {
+            plugin.getLogger().info("Removed " + removed + " leftover armor stand hologram(s) in chunk "
+                + event.getChunk().getX() + ", " + event.getChunk().getZ() + ".");
+        }
+    }
+}
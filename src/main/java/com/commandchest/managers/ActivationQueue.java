@@ -0,0 +1,97 @@
+package com.commandchest.managers;
+
+import com.commandchest.CommandChest;
+import com.commandchest.messages.Message;
+import com.commandchest.models.ChestData;
+import com.commandchest.util.TaskScheduler;
+import org.bukkit.entity.Player;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Activations that passed every check in the interact event, waiting to have their commands run.
+ * A task drains the queue once per tick, running at most {@code activations.max-per-tick} of them;
+ * the rest stay queued in order for the next tick. This keeps the cost of a crowd clicking chests in
+ * the same tick bounded, instead of running every command inside its event.
+ * On Folia clicks are queued from every region and the drain runs on the global region, so each
+ * activation is handed to its player's thread to run.
+ */
+public class ActivationQueue {
+
+    private final CommandChest plugin;
+    private final Queue<Activation> queue;
+    private final int maxPerTick;
+    private TaskScheduler.Task task;
+
+    public ActivationQueue(CommandChest plugin) {
+        this.plugin = plugin;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.maxPerTick = Math.max(1, plugin.getConfig().getInt("activations.max-per-tick", 64));
+    }
+
+    public void start() {
+        task = plugin.getTaskScheduler().runTimer(this::drain, 1L, 1L);
+    }
+
+    /**
+     * Drops whatever is still queued and gives those players their cooldown back. Commands aren't run
+     * while the plugin is disabling, since delayed steps could no longer be scheduled.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        Activation activation;
+        while ((activation = queue.poll()) != null) {
+            plugin.getCooldownManager().cancelCooldown(activation.chestData(), activation.player().getUniqueId());
+        }
+    }
+
+    public void enqueue(ChestData chestData, Player player) {
+        queue.add(new Activation(chestData, player));
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void drain() {
+        Activation activation;
+        for (int i = 0; i < maxPerTick && (activation = queue.poll()) != null; i++) {
+            Activation next = activation;
+            // On Folia the task never runs for a player who left, so the cooldown is given back here instead
+            plugin.getTaskScheduler().executeFor(next.player(), () -> run(next),
+                () -> plugin.getCooldownManager().cancelCooldown(next.chestData(), next.player().getUniqueId()));
+        }
+    }
+
+    private void run(Activation activation) {
+        ChestData chestData = activation.chestData();
+        Player player = activation.player();
+        // The player may have left, or the chest been removed, since the click
+        if (!player.isOnline()) {
+            // The cooldown was started when the activation was queued; without the reward it shouldn't count
+            plugin.getCooldownManager().cancelCooldown(chestData, player.getUniqueId());
+            return;
+        }
+        if (plugin.getChestDataManager().getChestData(chestData.getLocation()) != chestData) {
+            // Removing the chest already cleared its cooldowns
+            return;
+        }
+
+        try {
+            plugin.getCommandRunner().run(chestData, player);
+            plugin.getMessages().send(player, Message.COMMAND_EXECUTED);
+        } catch (Exception e) {
+            // The cooldown was started when the activation was queued; a failed one shouldn't count
+            plugin.getCooldownManager().cancelCooldown(chestData, player.getUniqueId());
+            plugin.getMessages().send(player, Message.COMMAND_FAILED);
+            plugin.getLogger().warning("Failed to execute command for chest: " + e.getMessage());
+        }
+    }
+
+    private record Activation(ChestData chestData, Player player) {
+    }
+}
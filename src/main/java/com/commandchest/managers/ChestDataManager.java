@@ -2,186 +2,380 @@ package com.commandchest.managers;
 
 import com.commandchest.CommandChest;
 import com.commandchest.models.ChestData;
-import org.bukkit.Bukkit;
+import com.commandchest.storage.ChestRecord;
+import com.commandchest.storage.ChestStore;
+import com.commandchest.storage.LoadStats;
+import com.commandchest.storage.LogChestStore;
+import com.commandchest.storage.WriteBehindQueue;
+import com.commandchest.storage.YamlChestStore;
 import org.bukkit.Location;
-import org.bukkit.Material;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.inventory.ItemStack;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
 
 public class ChestDataManager {
 
     private final CommandChest plugin;
-    private final Map<Location, ChestData> chestDataMap;
-    private final File chestsFolder;
+    private final Map<UUID, ChestData> chestsById;
+    private final ChestIndex chestIndex; // guarded by indexLock: on Folia, regions look chests up in parallel;
+                                         // single-chest lookups read optimistically
+    private final StampedLock indexLock;
+    private final Set<String> loadedWorlds;
+    private final ChestStore store;
+    private final WriteBehindQueue saveQueue;
 
     public ChestDataManager(CommandChest plugin) {
         this.plugin = plugin;
-        this.chestDataMap = new HashMap<>();
-        this.chestsFolder = new File(plugin.getDataFolder(), "chests");
-        
-        if (!chestsFolder.exists()) {
-            chestsFolder.mkdirs();
-        }
+        this.chestsById = new ConcurrentHashMap<>();
+        this.chestIndex = new ChestIndex();
+        this.indexLock = new StampedLock();
+        this.loadedWorlds = ConcurrentHashMap.newKeySet();
+        this.store = createStore(plugin.getConfig().getString("storage.type", YamlChestStore.TYPE));
+
+        this.saveQueue = new WriteBehindQueue(store, plugin.getLogger(), plugin.getMetrics());
+        this.saveQueue.start(plugin.getTaskScheduler(), plugin.getConfig().getLong("storage.save-interval-ticks", 100L));
     }
 
+    /**
+     * Opens the store (which builds its lightweight per-world index) and loads the chests of worlds that are
+     * already loaded. Chests of other worlds stay on disk until {@link #loadWorld(World)} is called for them.
+     * Logs how long each phase took and how much was read.
+     */
     public void loadAllChests() {
-        File[] files = chestsFolder.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (files == null) return;
+        long start = System.nanoTime();
+        try {
+            store.open();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open " + store.getType() + " chest storage", e);
+        }
+        long opened = System.nanoTime();
 
-        for (File file : files) {
-            try {
-                FileConfiguration config = YamlConfiguration.loadConfiguration(file);
-                ChestData chestData = loadChestData(config);
-                if (chestData != null && chestData.getLocation() != null) {
-                    chestDataMap.put(chestData.getLocation(), chestData);
-                }
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to load chest data from " + file.getName() + ": " + e.getMessage());
-            }
+        LoadStats stats = new LoadStats();
+        long[] phases = new long[2];
+        for (World world : plugin.getServer().getWorlds()) {
+            loadWorld(world, stats, phases);
+        }
+        long end = System.nanoTime();
+
+        plugin.getLogger().info("Loaded " + chestsById.size() + " configured chest(s) from " + loadedWorlds.size()
+            + " loaded world(s) using " + store.getType() + " storage in " + millis(end - start) + " ms (open "
+            + millis(opened - start) + " ms, read " + millis(phases[0]) + " ms, bind " + millis(phases[1])
+            + " ms); " + stats.getRecords() + " record(s), "
+            + String.format("%.1f", stats.getBytes() / 1024.0) + " KiB, " + stats.getFailures() + " failed; "
+            + store.getWorldNames().size() + " world(s) indexed.");
+        if (stats.getFailures() > 0) {
+            plugin.getLogger().warning(stats.getFailures() + " chest(s) could not be loaded, see the warnings above."
+                + " Their data was left untouched on disk.");
         }
+    }
 
-        plugin.getLogger().info("Loaded " + chestDataMap.size() + " configured chest(s).");
+    /**
+     * Materializes the chests stored for the given world. Returns the chests that were loaded.
+     */
+    public List<ChestData> loadWorld(World world) {
+        return loadWorld(world, new LoadStats(), new long[2]);
     }
 
-    public void saveAllChests() {
-        for (ChestData chestData : chestDataMap.values()) {
-            saveChestData(chestData);
+    /**
+     * Reads the world's records from the store, which may parse them on other threads, then builds and
+     * registers their {@link ChestData} here in one pass. Adds the time of both steps to {@code phases}.
+     */
+    private List<ChestData> loadWorld(World world, LoadStats stats, long[] phases) {
+        if (!loadedWorlds.add(world.getName()) || !store.getWorldNames().contains(world.getName())) {
+            return Collections.emptyList();
         }
+
+        long start = System.nanoTime();
+        List<ChestRecord> records;
+        try {
+            records = store.loadWorld(world.getName(), stats);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to load chests of world " + world.getName() + ": " + e.getMessage());
+            return Collections.emptyList();
+        }
+        long read = System.nanoTime();
+
+        List<ChestData> loaded = new ArrayList<>(records.size());
+        for (ChestRecord record : records) {
+            // The record's world decides the binding, so a chest is never bound to a world that isn't loaded
+            ChestData chestData = record.toChestData(world);
+            register(chestData);
+            loaded.add(chestData);
+
+            if (!record.legacyActivations().isEmpty()) {
+                // Move the old last-activations into the cooldown store and rewrite the chest without them
+                plugin.getCooldownManager().importLegacyActivations(chestData, record.legacyActivations());
+                saveQueue.markDirty(chestData);
+            }
+        }
+        long end = System.nanoTime();
+        phases[0] += read - start;
+        phases[1] += end - read;
+        plugin.getMetrics().recordLoad(loaded.size(), end - start);
+        return loaded;
     }
 
-    public ChestData getChestData(Location location) {
-        return chestDataMap.get(location);
+    /**
+     * Evicts the chests of an unloading world. Pending changes are flushed first; the chests
+     * are read from the store again if the world is loaded later.
+     */
+    public List<ChestData> unloadWorld(World world) {
+        if (!loadedWorlds.remove(world.getName())) {
+            return Collections.emptyList();
+        }
+
+        List<ChestData> chests = getChestsInWorld(world);
+        saveQueue.flush();
+        long stamp = indexLock.writeLock();
+        try {
+            chestIndex.removeWorld(world.getUID());
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+        for (ChestData chestData : chests) {
+            chestsById.remove(chestData.getChestUUID());
+            plugin.getHologramScheduler().chestChanged(chestData);
+        }
+        return chests;
     }
 
-    public void addChestData(ChestData chestData) {
-        chestDataMap.put(chestData.getLocation(), chestData);
-        saveChestData(chestData);
+    /**
+     * Copies every stored chest, including those of unloaded worlds, into an empty store of another type.
+     * Runs on the writer thread after all pending saves; {@code reply} is called on the main thread.
+     */
+    public void migrateTo(String targetType, Consumer<String> reply) {
+        if (targetType.equalsIgnoreCase(store.getType())) {
+            reply.accept("Storage is already " + store.getType() + ".");
+            return;
+        }
+
+        ChestStore target = createStore(targetType);
+        if (!target.getType().equalsIgnoreCase(targetType)) {
+            reply.accept("Unknown storage type '" + targetType + "'. Use " + YamlChestStore.TYPE + " or "
+                + LogChestStore.TYPE + ".");
+            return;
+        }
+
+        saveQueue.flush();
+        saveQueue.submit(() -> {
+            String result;
+            try {
+                result = copyStore(store, target);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Chest storage migration failed: " + e.getMessage());
+                result = "Migration failed: " + e.getMessage();
+            }
+            String message = result;
+            plugin.getTaskScheduler().runGlobal(() -> reply.accept(message));
+        });
     }
 
-    public void removeChestData(Location location) {
-        ChestData chestData = chestDataMap.remove(location);
-        if (chestData != null) {
-            deleteChestFile(chestData.getChestUUID());
+    private String copyStore(ChestStore source, ChestStore target) throws IOException {
+        long start = System.nanoTime();
+        target.open();
+        try {
+            if (!target.getWorldNames().isEmpty()) {
+                return "The " + target.getType() + " store already contains chests - remove it first.";
+            }
+
+            int copied = 0;
+            LoadStats stats = new LoadStats();
+            for (String worldName : source.getWorldNames()) {
+                List<ChestRecord> records = source.loadWorld(worldName, stats);
+                target.save(records);
+                copied += records.size();
+            }
+            String failed = stats.getFailures() > 0
+                ? " " + stats.getFailures() + " chest(s) could not be read and were skipped, see the console."
+                : "";
+            return "Copied " + copied + " chest(s) to " + target.getType() + " storage in "
+                + millis(System.nanoTime() - start) + " ms." + failed
+                + " Set storage.type to " + target.getType() + " and restart to use it.";
+        } finally {
+            target.close();
         }
     }
 
-    public boolean hasChestData(Location location) {
-        return chestDataMap.containsKey(location);
+    private ChestStore createStore(String type) {
+        if (LogChestStore.TYPE.equalsIgnoreCase(type)) {
+            return new LogChestStore(new File(plugin.getDataFolder(), "chests.dat"), plugin.getLogger());
+        }
+        if (!YamlChestStore.TYPE.equalsIgnoreCase(type)) {
+            plugin.getLogger().warning("Unknown storage type '" + type + "', using " + YamlChestStore.TYPE + ".");
+        }
+        return new YamlChestStore(new File(plugin.getDataFolder(), "chests"), plugin.getLogger());
     }
 
-    public Collection<ChestData> getAllChestData() {
-        return chestDataMap.values();
+    /**
+     * Writes every chest with changes that haven't been saved yet, including any whose change wasn't
+     * passed to {@link #markDirty(ChestData)}. Unchanged chests are not rewritten.
+     */
+    public void saveAllChests() {
+        for (ChestData chestData : chestsById.values()) {
+            if (chestData.getChanges() != 0) {
+                saveQueue.markDirty(chestData);
+            }
+        }
+        saveQueue.flush();
     }
 
-    private ChestData loadChestData(FileConfiguration config) {
+    public void shutdown() {
+        // Flushes anything still dirty and waits for the writer thread to finish
+        saveQueue.shutdown();
         try {
-            UUID chestUUID = UUID.fromString(config.getString("uuid"));
-            String worldName = config.getString("location.world");
-            int x = config.getInt("location.x");
-            int y = config.getInt("location.y");
-            int z = config.getInt("location.z");
-
-            Location location = new Location(Bukkit.getWorld(worldName), x, y, z);
-            ChestData chestData = new ChestData(chestUUID, location);
-
-            chestData.setNameLines(config.getStringList("name.lines"));
-            chestData.setNameVisible(config.getBoolean("name.visible", true));
-            chestData.setCommand(config.getString("command", ""));
-            chestData.setCooldown(config.getInt("cooldown", 0));
-            
-            String activationMethodStr = config.getString("activation-method", "RIGHT");
-            try {
-                chestData.setActivationMethod(ChestData.ActivationMethod.valueOf(activationMethodStr));
-            } catch (IllegalArgumentException e) {
-                chestData.setActivationMethod(ChestData.ActivationMethod.RIGHT);
-            }
+            store.close();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to close chest storage: " + e.getMessage());
+        }
+        plugin.getLogger().info("Chest saves: " + saveQueue.getWrittenChests() + " chest(s) in " + saveQueue.getFlushCount()
+            + " flush(es), avg " + String.format("%.2f", saveQueue.getAverageFlushMillis()) + " ms, max "
+            + String.format("%.2f", saveQueue.getMaxFlushMillis()) + " ms, " + saveQueue.getFailedWrites() + " failed.");
+    }
 
-            // Load required item
-            if (config.contains("required-item")) {
-                String materialStr = config.getString("required-item.material");
-                if (materialStr != null) {
-                    try {
-                        Material material = Material.valueOf(materialStr);
-                        ItemStack item = new ItemStack(material);
-                        if (config.contains("required-item.amount")) {
-                            item.setAmount(config.getInt("required-item.amount"));
-                        }
-                        chestData.setRequiredItem(item);
-                    } catch (IllegalArgumentException e) {
-                        // Invalid material, skip
-                    }
-                }
-            }
+    /**
+     * Chests waiting to be written, see {@link WriteBehindQueue#getQueueDepth()}.
+     */
+    public int getSaveQueueDepth() {
+        return saveQueue.getQueueDepth();
+    }
+
+    public ChestData getChestData(Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return null;
+        }
+        return getChestData(world.getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    public ChestData getChestData(Block block) {
+        return getChestData(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ());
+    }
 
-            // Load last activation times
-            if (config.contains("last-activations")) {
-                Map<UUID, Long> activations = new HashMap<>();
-                for (String key : config.getConfigurationSection("last-activations").getKeys(false)) {
-                    try {
-                        UUID playerUUID = UUID.fromString(key);
-                        long timestamp = config.getLong("last-activations." + key);
-                        activations.put(playerUUID, timestamp);
-                    } catch (IllegalArgumentException e) {
-                        // Invalid UUID, skip
-                    }
+    private ChestData getChestData(UUID worldId, int x, int y, int z) {
+        // Every click looks a chest up, while the index rarely changes: read without locking and only
+        // take the read lock if a write happened meanwhile
+        long stamp = indexLock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                // peek() leaves the index untouched, so a read that fails validation leaves nothing behind
+                ChestData chestData = chestIndex.peek(worldId, x, y, z);
+                if (indexLock.validate(stamp)) {
+                    return chestData;
                 }
-                chestData.setLastActivationTimes(activations);
+            } catch (RuntimeException e) {
+                // The index was caught mid-update; the locked read below sees it consistently
             }
+        }
 
-            return chestData;
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error loading chest data: " + e.getMessage());
-            return null;
+        stamp = indexLock.readLock();
+        try {
+            return chestIndex.get(worldId, x, y, z);
+        } finally {
+            indexLock.unlockRead(stamp);
         }
     }
 
-    private void saveChestData(ChestData chestData) {
-        File file = new File(chestsFolder, chestData.getChestUUID().toString() + ".yml");
-        FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+    public void addChestData(ChestData chestData) {
+        register(chestData);
+        saveQueue.markDirty(chestData);
+    }
 
-        config.set("uuid", chestData.getChestUUID().toString());
-        config.set("location.world", chestData.getLocation().getWorld().getName());
-        config.set("location.x", chestData.getLocation().getBlockX());
-        config.set("location.y", chestData.getLocation().getBlockY());
-        config.set("location.z", chestData.getLocation().getBlockZ());
+    /**
+     * Schedules an already registered chest to be written on the next flush.
+     */
+    public void markDirty(ChestData chestData) {
+        saveQueue.markDirty(chestData);
+    }
 
-        config.set("name.lines", chestData.getNameLines());
-        config.set("name.visible", chestData.isNameVisible());
-        config.set("command", chestData.getCommand());
-        config.set("cooldown", chestData.getCooldown());
-        config.set("activation-method", chestData.getActivationMethod().name());
+    public void removeChestData(Location location) {
+        ChestData chestData;
+        long stamp = indexLock.writeLock();
+        try {
+            chestData = chestIndex.remove(location);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+        if (chestData != null) {
+            chestsById.remove(chestData.getChestUUID());
+            saveQueue.markDeleted(chestData);
+            plugin.getCooldownManager().clearChest(chestData.getChestUUID());
+            plugin.getHologramScheduler().chestChanged(chestData);
+        }
+    }
+
+    public boolean hasChestData(Location location) {
+        return getChestData(location) != null;
+    }
+
+    public boolean hasChestData(Block block) {
+        return getChestData(block) != null;
+    }
+
+    public Collection<ChestData> getAllChestData() {
+        return chestsById.values();
+    }
 
-        // Save required item
-        if (chestData.getRequiredItem() != null) {
-            config.set("required-item.material", chestData.getRequiredItem().getType().name());
-            config.set("required-item.amount", chestData.getRequiredItem().getAmount());
-        } else {
-            config.set("required-item", null);
+    public List<ChestData> getChestsInWorld(World world) {
+        long stamp = indexLock.readLock();
+        try {
+            return chestIndex.getWorld(world.getUID());
+        } finally {
+            indexLock.unlockRead(stamp);
         }
+    }
 
-        // Save last activation times
-        config.set("last-activations", null);
-        for (Map.Entry<UUID, Long> entry : chestData.getLastActivationTimes().entrySet()) {
-            config.set("last-activations." + entry.getKey().toString(), entry.getValue());
+    public List<ChestData> getChestsInChunk(World world, int chunkX, int chunkZ) {
+        long stamp = indexLock.readLock();
+        try {
+            return chestIndex.getChunk(world.getUID(), chunkX, chunkZ);
+        } finally {
+            indexLock.unlockRead(stamp);
         }
+    }
 
+    public List<ChestData> getChestsInRadius(Location center, double radius) {
+        if (center.getWorld() == null) {
+            return Collections.emptyList();
+        }
+        long stamp = indexLock.readLock();
         try {
-            config.save(file);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save chest data: " + e.getMessage());
+            return chestIndex.getInRadius(center.getWorld().getUID(), center.getX(), center.getY(), center.getZ(),
+                radius);
+        } finally {
+            indexLock.unlockRead(stamp);
         }
     }
 
-    private void deleteChestFile(UUID chestUUID) {
-        File file = new File(chestsFolder, chestUUID.toString() + ".yml");
-        if (file.exists()) {
-            file.delete();
+    private void register(ChestData chestData) {
+        ChestData previous;
+        long stamp = indexLock.writeLock();
+        try {
+            previous = chestIndex.put(chestData);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+        if (previous != null && !previous.getChestUUID().equals(chestData.getChestUUID())) {
+            // Another configuration occupied this block - it is replaced, not kept alongside
+            chestsById.remove(previous.getChestUUID());
+            saveQueue.markDeleted(previous);
+            plugin.getHologramScheduler().chestChanged(previous);
         }
+        chestsById.put(chestData.getChestUUID(), chestData);
+        plugin.getCommandTargets().resolve(chestData);
+        plugin.getHologramScheduler().chestChanged(chestData);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
     }
-}
 
+    public WriteBehindQueue getSaveQueue() {
+        return saveQueue;
+    }
+}
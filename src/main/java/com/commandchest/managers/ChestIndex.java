@@ -0,0 +1,280 @@
+package com.commandchest.managers;
+
+import com.commandchest.models.ChestData;
+import com.commandchest.util.LongObjectMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.*;
+
+/**
+ * Spatial index of configured chests: world UUID -> packed chunk key -> packed block position.
+ * Looking up a {@link Block} reads its coordinates directly and allocates nothing.
+ * Each world also keeps a chunk occupancy bitset, so clicks in chunks without chests
+ * are rejected with a single bit test before any hash table is touched.
+ */
+public class ChestIndex {
+
+    // 2^16 bits (8 KiB) per world keeps false positives rare even with thousands of occupied chunks
+    private static final int OCCUPANCY_BITS = 1 << 16;
+
+    private final Map<UUID, WorldIndex> worlds;
+    private WorldIndex lastWorld; // most worlds see repeated lookups, skip the UUID hash for them;
+                                  // set by put() and locked lookups, never by peek()
+    private int size;
+
+    public ChestIndex() {
+        this.worlds = new HashMap<>();
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        // Same layout as Paper's Chunk#getChunkKey
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    public static long blockKey(int x, int y, int z) {
+        // Position inside the chunk: y in the high bits, then 4 bits each of x and z
+        return ((long) y << 8) | ((x & 15) << 4) | (z & 15);
+    }
+
+    public ChestData get(Block block) {
+        return get(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ());
+    }
+
+    public ChestData get(Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return null;
+        }
+        return get(world.getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    public ChestData get(UUID worldId, int x, int y, int z) {
+        return get(world(worldId, true), x, y, z);
+    }
+
+    /**
+     * Same as {@link #get(UUID, int, int, int)}, but leaves the last-world cache alone, for readers that hold
+     * no lock and validate afterwards. Such a reader can race {@link #removeWorld(UUID)} and must not put the
+     * removed world back into the cache, where later lookups would keep finding it.
+     */
+    public ChestData peek(UUID worldId, int x, int y, int z) {
+        return get(world(worldId, false), x, y, z);
+    }
+
+    private ChestData get(WorldIndex world, int x, int y, int z) {
+        if (world == null) {
+            return null;
+        }
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        if (!world.mightContain(chunkKey)) {
+            return null;
+        }
+        LongObjectMap<ChestData> chunk = world.chunks.get(chunkKey);
+        if (chunk == null) {
+            return null;
+        }
+        return chunk.get(blockKey(x, y, z));
+    }
+
+    /**
+     * Cheap pre-check: {@code false} means the chunk definitely holds no configured chest.
+     */
+    public boolean mightContain(Block block) {
+        WorldIndex world = world(block.getWorld().getUID());
+        return world != null && world.mightContain(chunkKey(block.getX() >> 4, block.getZ() >> 4));
+    }
+
+    /**
+     * Indexes the chest at its location, returning the chest previously stored there.
+     */
+    public ChestData put(ChestData chestData) {
+        Location location = chestData.getLocation();
+        World world = location.getWorld();
+        if (world == null) {
+            throw new IllegalArgumentException("Chest " + chestData.getChestUUID() + " has no world");
+        }
+
+        int x = location.getBlockX();
+        int z = location.getBlockZ();
+        WorldIndex worldIndex = worlds.computeIfAbsent(world.getUID(), WorldIndex::new);
+        lastWorld = worldIndex;
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        LongObjectMap<ChestData> chunk = worldIndex.chunks.get(chunkKey);
+        if (chunk == null) {
+            chunk = new LongObjectMap<>(4);
+            worldIndex.chunks.put(chunkKey, chunk);
+            worldIndex.markOccupied(chunkKey);
+        }
+
+        ChestData previous = chunk.put(blockKey(x, location.getBlockY(), z), chestData);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    public ChestData remove(Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return null;
+        }
+        return remove(world.getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    public ChestData remove(UUID worldId, int x, int y, int z) {
+        WorldIndex world = worlds.get(worldId);
+        if (world == null) {
+            return null;
+        }
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        LongObjectMap<ChestData> chunk = world.chunks.get(chunkKey);
+        if (chunk == null) {
+            return null;
+        }
+
+        ChestData removed = chunk.remove(blockKey(x, y, z));
+        if (removed != null) {
+            size--;
+            // Drop empty levels so "no chests here" stays a single failed probe
+            if (chunk.isEmpty()) {
+                world.chunks.remove(chunkKey);
+                if (world.chunks.isEmpty()) {
+                    removeWorld(worldId);
+                } else {
+                    world.rebuildOccupancy();
+                }
+            }
+        }
+        return removed;
+    }
+
+    public boolean hasChunk(UUID worldId, int chunkX, int chunkZ) {
+        WorldIndex world = world(worldId);
+        return world != null && world.chunks.containsKey(chunkKey(chunkX, chunkZ));
+    }
+
+    public List<ChestData> getChunk(UUID worldId, int chunkX, int chunkZ) {
+        WorldIndex world = world(worldId);
+        if (world == null) {
+            return Collections.emptyList();
+        }
+        LongObjectMap<ChestData> chunk = world.chunks.get(chunkKey(chunkX, chunkZ));
+        return chunk == null ? Collections.emptyList() : chunk.values();
+    }
+
+    public List<ChestData> getWorld(UUID worldId) {
+        WorldIndex world = world(worldId);
+        if (world == null) {
+            return Collections.emptyList();
+        }
+        List<ChestData> result = new ArrayList<>();
+        world.chunks.forEachValue(chunk -> chunk.forEachValue(result::add));
+        return result;
+    }
+
+    /**
+     * Returns chests whose block centre lies within {@code radius} blocks of the given point.
+     * Only chunks overlapping the radius are visited.
+     */
+    public List<ChestData> getInRadius(UUID worldId, double centerX, double centerY, double centerZ, double radius) {
+        WorldIndex world = world(worldId);
+        if (world == null) {
+            return Collections.emptyList();
+        }
+
+        double radiusSquared = radius * radius;
+        int minChunkX = (int) Math.floor(centerX - radius) >> 4;
+        int maxChunkX = (int) Math.floor(centerX + radius) >> 4;
+        int minChunkZ = (int) Math.floor(centerZ - radius) >> 4;
+        int maxChunkZ = (int) Math.floor(centerZ + radius) >> 4;
+
+        List<ChestData> result = new ArrayList<>();
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                long chunkKey = chunkKey(chunkX, chunkZ);
+                if (!world.mightContain(chunkKey)) {
+                    continue;
+                }
+                LongObjectMap<ChestData> chunk = world.chunks.get(chunkKey);
+                if (chunk == null) {
+                    continue;
+                }
+                chunk.forEachValue(chestData -> {
+                    Location location = chestData.getLocation();
+                    double dx = location.getBlockX() + 0.5 - centerX;
+                    double dy = location.getBlockY() + 0.5 - centerY;
+                    double dz = location.getBlockZ() + 0.5 - centerZ;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                        result.add(chestData);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    public void removeWorld(UUID worldId) {
+        WorldIndex world = worlds.remove(worldId);
+        if (world != null) {
+            world.chunks.forEachValue(chunk -> size -= chunk.size());
+            if (lastWorld == world) {
+                lastWorld = null;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private WorldIndex world(UUID worldId) {
+        return world(worldId, true);
+    }
+
+    private WorldIndex world(UUID worldId, boolean remember) {
+        WorldIndex cached = lastWorld;
+        if (cached != null && cached.worldId == worldId) {
+            return cached;
+        }
+        WorldIndex world = worlds.get(worldId);
+        if (world != null && remember) {
+            lastWorld = world;
+        }
+        return world;
+    }
+
+    private static final class WorldIndex {
+        private final UUID worldId;
+        private final LongObjectMap<LongObjectMap<ChestData>> chunks;
+        private final long[] occupancy;
+
+        private WorldIndex(UUID worldId) {
+            this.worldId = worldId;
+            this.chunks = new LongObjectMap<>();
+            this.occupancy = new long[OCCUPANCY_BITS >>> 6];
+        }
+
+        private boolean mightContain(long chunkKey) {
+            int bit = occupancyBit(chunkKey);
+            return (occupancy[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        private void markOccupied(long chunkKey) {
+            int bit = occupancyBit(chunkKey);
+            occupancy[bit >>> 6] |= 1L << bit;
+        }
+
+        private void rebuildOccupancy() {
+            // Bits can be shared between chunks, so clearing one means recomputing from the chunk keys
+            Arrays.fill(occupancy, 0L);
+            chunks.forEachKey(this::markOccupied);
+        }
+
+        private static int occupancyBit(long chunkKey) {
+            long hash = chunkKey * 0x9E3779B97F4A7C15L;
+            return (int) (hash >>> 48); // top 16 bits
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.commandchest.managers;
+
+import com.commandchest.CommandChest;
+import com.commandchest.models.ChestData;
+import com.commandchest.models.CommandTemplate;
+import com.commandchest.util.TaskScheduler;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+/**
+ * Runs a chest's compiled command chain for an activation.
+ * All steps are rendered up front, so delayed steps see the same {@code {clicks}} value as the first one.
+ * Player steps run on the player's thread and console steps on the global region, which off Folia are
+ * both the main thread.
+ */
+public class CommandRunner {
+
+    private final CommandChest plugin;
+
+    public CommandRunner(CommandChest plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Runs the steps without a delay immediately and schedules the rest. Must be called on the player's
+     * thread. Exceptions thrown by an immediate step propagate to the caller; steps that had to be
+     * scheduled only log theirs.
+     */
+    public void run(ChestData chestData, Player player) {
+        List<CommandTemplate> steps = chestData.getCompiledCommands();
+        long clicks = chestData.incrementClicks();
+        if (chestData.usesClicks()) {
+            // Only chests that show the count have it written back; the write is coalesced with other saves
+            plugin.getChestDataManager().markDirty(chestData);
+        }
+
+        long delay = 0;
+        for (CommandTemplate step : steps) {
+            String command = step.render(player, chestData, clicks);
+            delay += step.getDelayTicks();
+            boolean console = step.getSender() == CommandTemplate.Sender.CONSOLE;
+            // On Folia the console belongs to the global region, not the player's
+            if (delay == 0 && (!console || !TaskScheduler.isFolia())) {
+                dispatch(step, player, command);
+                continue;
+            }
+
+            Runnable task = () -> {
+                try {
+                    dispatch(step, player, command);
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to execute command for chest: " + e.getMessage());
+                }
+            };
+            if (delay == 0) {
+                plugin.getTaskScheduler().executeGlobal(task);
+            } else if (console) {
+                plugin.getTaskScheduler().runGlobalLater(task, delay);
+            } else {
+                // Dropped if the player leaves before then
+                plugin.getTaskScheduler().runForLater(player, task, delay);
+            }
+        }
+    }
+
+    private void dispatch(CommandTemplate step, Player player, String command) {
+        CommandSender sender = step.getSender() == CommandTemplate.Sender.CONSOLE
+            ? plugin.getServer().getConsoleSender() : player;
+        long start = System.nanoTime();
+        try {
+            // Constant plugin commands skip the command map; everything else is parsed as usual
+            if (!plugin.getCommandTargets().execute(step, sender)) {
+                plugin.getServer().dispatchCommand(sender, command);
+            }
+        } finally {
+            plugin.getMetrics().recordDispatch(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.commandchest.managers;
+
+import com.commandchest.CommandChest;
+import com.commandchest.models.ChestData;
+import com.commandchest.models.CommandTemplate;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+
+/**
+ * Resolves constant plugin commands of chest steps to their {@link Command} once, so an activation
+ * can call {@link Command#execute} directly instead of having the command map re-split the text and
+ * look the label up again. Resolutions are tied to a generation that is bumped whenever plugins are
+ * enabled or disabled; a step resolved in an older generation is resolved again before its next use.
+ * Vanilla and Brigadier commands, and steps with placeholders, always go through {@code dispatchCommand}.
+ */
+public class CommandTargets {
+
+    private final CommandChest plugin;
+    private volatile int generation;
+
+    public CommandTargets(CommandChest plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Resolves every constant step of the chest. Called when chests are loaded or added.
+     */
+    public void resolve(ChestData chestData) {
+        for (CommandTemplate step : chestData.getCompiledCommands()) {
+            if (step.getLabel() != null) {
+                resolve(step);
+            }
+        }
+    }
+
+    /**
+     * Drops all resolutions, e.g. because a plugin registered or removed commands.
+     */
+    public void invalidate() {
+        generation++;
+    }
+
+    /**
+     * Runs the step directly on its resolved command. Returns false if the step has no usable target,
+     * in which case the caller has to dispatch the rendered command text instead.
+     */
+    public boolean execute(CommandTemplate step, CommandSender sender) {
+        if (step.getLabel() == null) {
+            return false;
+        }
+        // Read once, so the command and its generation come from the same resolution
+        CommandTemplate.Target target = step.getTarget();
+        if (target == null || target.generation() != generation) {
+            target = resolve(step);
+        }
+
+        Command command = target.command();
+        if (command == null || !command.isRegistered()) {
+            return false;
+        }
+        // Executors may modify the array they are given
+        command.execute(sender, step.getLabel(), step.getArguments().clone());
+        return true;
+    }
+
+    private CommandTemplate.Target resolve(CommandTemplate step) {
+        // Read the generation before the lookup, so an invalidation during it forces another resolve
+        int current = generation;
+        CommandMap commandMap = plugin.getServer().getCommandMap();
+        Command command = commandMap.getCommand(step.getLabel());
+        CommandTemplate.Target target = new CommandTemplate.Target(command instanceof PluginCommand ? command : null,
+            current);
+        step.setTarget(target);
+        return target;
+    }
+}
@@ -1,48 +1,210 @@
 package com.commandchest.managers;
 
+import com.commandchest.CommandChest;
 import com.commandchest.models.ChestData;
-import java.util.UUID;
+import com.commandchest.storage.CooldownStore;
+import com.commandchest.util.CooldownTable;
+import com.commandchest.util.TaskScheduler;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Owns per-player chest cooldowns. Only running cooldowns are kept: each entry holds the time the
+ * cooldown ends and is reclaimed by the table's timer wheel once that has passed, so memory and
+ * {@code cooldowns.dat} track active cooldowns rather than everyone who ever clicked a chest.
+ * Changes are collected as they happen and appended to the cooldown journal on each save; the table
+ * is only copied out when the journal is due for compaction.
+ * The table isn't thread-safe, so every access holds this manager's lock; on Folia activations in
+ * different regions check cooldowns concurrently.
+ */
 public class CooldownManager {
 
-    // This manager is mainly a helper - actual cooldown data is stored in ChestData
-    // This class can be used for additional cooldown utilities if needed
+    private static final int SWEEP_BUDGET = 1024; // wheel entries handled per tick
+
+    private final CommandChest plugin;
+    private final CooldownStore store;
+    private final CooldownTable cooldowns;
+    private volatile long now; // wall clock, refreshed once per tick
+    private CooldownStore.Changes changes; // not yet handed to the writer
+    private boolean compactionPending;
+    private TaskScheduler.Task sweepTask;
+    private TaskScheduler.Task saveTask;
+
+    public CooldownManager(CommandChest plugin) {
+        this.plugin = plugin;
+        this.store = new CooldownStore(new File(plugin.getDataFolder(), "cooldowns.dat"), plugin.getLogger());
+        this.now = System.currentTimeMillis();
+        this.cooldowns = new CooldownTable(now);
+        this.changes = new CooldownStore.Changes();
+    }
+
+    public synchronized void load() {
+        now = System.currentTimeMillis();
+        long loadedAt = now;
+        try {
+            store.load(new CooldownStore.Replay() {
+                @Override
+                public void put(long chestMost, long chestLeast, long playerMost, long playerLeast, long expiresAt) {
+                    if (expiresAt > loadedAt) {
+                        cooldowns.put(chestMost, chestLeast, playerMost, playerLeast, expiresAt);
+                    } else {
+                        cooldowns.remove(chestMost, chestLeast, playerMost, playerLeast);
+                    }
+                }
+
+                @Override
+                public void remove(long chestMost, long chestLeast, long playerMost, long playerLeast) {
+                    cooldowns.remove(chestMost, chestLeast, playerMost, playerLeast);
+                }
+
+                @Override
+                public void removeChest(long chestMost, long chestLeast) {
+                    cooldowns.removeChest(chestMost, chestLeast);
+                }
+            });
+        } catch (IOException e) {
+            // The first save writes a fresh file from whatever was loaded
+            plugin.getLogger().severe("Failed to load cooldowns: " + e.getMessage());
+        }
+    }
+
+    public void start(long saveIntervalTicks) {
+        sweepTask = plugin.getTaskScheduler().runTimer(this::tick, 1L, 1L);
+        long interval = Math.max(1L, saveIntervalTicks);
+        saveTask = plugin.getTaskScheduler().runTimer(this::save, interval, interval);
+    }
+
+    public synchronized boolean isOnCooldown(ChestData chestData, UUID playerUUID) {
+        return getExpiry(chestData, playerUUID) > now;
+    }
+
+    public synchronized long getRemainingCooldown(ChestData chestData, UUID playerUUID) {
+        long remainingMillis = getExpiry(chestData, playerUUID) - now;
+        if (remainingMillis <= 0) {
+            return 0;
+        }
+        return (remainingMillis + 999) / 1000; // Round up to whole seconds
+    }
 
-    public boolean isOnCooldown(ChestData chestData, UUID playerUUID) {
+    public synchronized void startCooldown(ChestData chestData, UUID playerUUID) {
         if (chestData.getCooldown() <= 0) {
-            return false;
+            return;
         }
+        long expiresAt = now + chestData.getCooldown() * 1000L;
+        cooldowns.put(chestData.getChestUUID(), playerUUID, expiresAt);
+        changes.put(chestData.getChestUUID(), playerUUID, expiresAt);
+    }
 
-        long lastActivation = chestData.getLastActivationTime(playerUUID);
-        if (lastActivation == 0) {
-            return false;
+    public synchronized void cancelCooldown(ChestData chestData, UUID playerUUID) {
+        if (cooldowns.remove(chestData.getChestUUID(), playerUUID)) {
+            changes.remove(chestData.getChestUUID(), playerUUID);
         }
+    }
 
-        long currentTime = System.currentTimeMillis();
-        long timePassed = (currentTime - lastActivation) / 1000; // Convert to seconds
+    /**
+     * Imports {@code last-activations} from chest files written before cooldowns were stored separately.
+     * Activations whose cooldown has already elapsed are dropped.
+     */
+    public synchronized void importLegacyActivations(ChestData chestData, Map<UUID, Long> lastActivations) {
+        if (chestData.getCooldown() <= 0 || lastActivations.isEmpty()) {
+            return;
+        }
 
-        return timePassed < chestData.getCooldown();
+        for (Map.Entry<UUID, Long> entry : lastActivations.entrySet()) {
+            long expiresAt = entry.getValue() + chestData.getCooldown() * 1000L;
+            if (expiresAt > now && expiresAt > cooldowns.get(chestData.getChestUUID(), entry.getKey())) {
+                cooldowns.put(chestData.getChestUUID(), entry.getKey(), expiresAt);
+                changes.put(chestData.getChestUUID(), entry.getKey(), expiresAt);
+            }
+        }
     }
 
-    public long getRemainingCooldown(ChestData chestData, UUID playerUUID) {
-        if (chestData.getCooldown() <= 0) {
-            return 0;
+    public synchronized void clearChest(UUID chestUUID) {
+        if (cooldowns.removeChest(chestUUID) > 0) {
+            changes.removeChest(chestUUID);
         }
+    }
 
-        long lastActivation = chestData.getLastActivationTime(playerUUID);
-        if (lastActivation == 0) {
-            return 0;
+    public synchronized int getActiveCooldowns() {
+        return cooldowns.size();
+    }
+
+    /**
+     * Hands the changes since the last save to the chest writer thread, which appends them to the journal.
+     * When the journal is due for compaction, the running cooldowns are copied out instead and written as
+     * the new journal on the writer thread.
+     */
+    public synchronized void save() {
+        boolean compact = !compactionPending && store.needsCompaction(cooldowns.size());
+        if (changes.isEmpty() && !compact) {
+            return;
         }
 
-        long currentTime = System.currentTimeMillis();
-        long timePassed = (currentTime - lastActivation) / 1000; // Convert to seconds
-        long remaining = chestData.getCooldown() - timePassed;
+        if (compact) {
+            // The copy already contains every pending change
+            long[] entries = cooldowns.toArray(now);
+            changes = new CooldownStore.Changes();
+            compactionPending = true;
+            plugin.getChestDataManager().getSaveQueue().submit(() -> {
+                try {
+                    store.compact(entries);
+                } catch (IOException e) {
+                    plugin.getLogger().severe("Failed to compact cooldowns: " + e.getMessage());
+                } finally {
+                    compactionDone();
+                }
+            });
+            return;
+        }
 
-        return Math.max(0, remaining);
+        CooldownStore.Changes batch = changes;
+        changes = new CooldownStore.Changes();
+        plugin.getChestDataManager().getSaveQueue().submit(() -> {
+            try {
+                store.append(batch);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to save cooldowns: " + e.getMessage());
+            }
+        });
     }
 
-    public void setLastActivation(ChestData chestData, UUID playerUUID) {
-        chestData.setLastActivationTime(playerUUID, System.currentTimeMillis());
+    public void shutdown() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+        save();
+        // Queued behind the last save
+        plugin.getChestDataManager().getSaveQueue().submit(() -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to close the cooldown journal: " + e.getMessage());
+            }
+        });
+    }
+
+    private long getExpiry(ChestData chestData, UUID playerUUID) {
+        if (chestData.getCooldown() <= 0) {
+            return 0L;
+        }
+        return cooldowns.get(chestData.getChestUUID(), playerUUID);
     }
-}
 
+    private synchronized void tick() {
+        // One clock read per tick; cooldowns are whole seconds, so a tick of staleness doesn't matter
+        now = System.currentTimeMillis();
+        // Expired entries need no journal record; replay and compaction skip them
+        cooldowns.sweep(now, SWEEP_BUDGET);
+    }
+
+    private synchronized void compactionDone() {
+        compactionPending = false;
+    }
+}
@@ -0,0 +1,112 @@
+package com.commandchest.managers;
+
+import org.bukkit.Location;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * The parts of the FancyHolograms API we use, looked up once and kept as method handles.
+ * FancyHolograms is a soft dependency, so it's only ever reached through reflection.
+ */
+class FancyHologramsBinding {
+
+    private static final String[] API_CLASSES = {
+        "de.oliver.fancyholograms.api.FancyHologramsAPI",
+        "de.oliver.fancyholograms.FancyHolograms",
+        "de.oliver.fancyholograms.api.hologram.FancyHologramsAPI"
+    };
+    private static final String[] HOLOGRAM_CLASSES = {
+        "de.oliver.fancyholograms.api.hologram.Hologram",
+        "de.oliver.fancyholograms.hologram.Hologram",
+        "de.oliver.fancyholograms.api.Hologram"
+    };
+
+    private final Object fallbackApi; // used when the API class has no static get()
+    private final MethodHandle getApi; // () -> api, or null
+    private final MethodHandle getHologramManager; // (api) -> manager
+    private final MethodHandle newHologram; // (String, Location) -> hologram
+    private final MethodHandle setText; // (hologram, List) -> void
+    private final MethodHandle addHologram; // (manager, hologram) -> void
+    private final MethodHandle createHologram; // (hologram) -> void
+    private final MethodHandle showHologram; // (hologram) -> void
+    private final MethodHandle removeHologram; // (manager, String) -> void
+
+    private FancyHologramsBinding(Object fallbackApi, Class<?> apiClass, Class<?> hologramClass)
+            throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        this.fallbackApi = fallbackApi;
+
+        MethodHandle get;
+        try {
+            get = lookup.unreflect(apiClass.getMethod("get"));
+        } catch (NoSuchMethodException e) {
+            get = null;
+        }
+        this.getApi = get;
+
+        Method managerGetter = apiClass.getMethod("getHologramManager");
+        Class<?> managerClass = managerGetter.getReturnType();
+        this.getHologramManager = lookup.unreflect(managerGetter);
+        this.newHologram = lookup.findConstructor(hologramClass,
+            MethodType.methodType(void.class, String.class, Location.class));
+        this.setText = lookup.unreflect(hologramClass.getMethod("setText", List.class));
+        this.addHologram = lookup.unreflect(managerClass.getMethod("addHologram", hologramClass));
+        this.createHologram = lookup.unreflect(hologramClass.getMethod("createHologram"));
+        this.showHologram = lookup.unreflect(hologramClass.getMethod("showHologram"));
+        this.removeHologram = lookup.unreflect(managerClass.getMethod("removeHologram", String.class));
+    }
+
+    /**
+     * Returns null (after logging why) if the installed FancyHolograms doesn't offer the API we need.
+     */
+    static FancyHologramsBinding resolve(Plugin fancyHologramsPlugin, Logger logger) {
+        Class<?> apiClass = findClass(API_CLASSES);
+        Class<?> hologramClass = findClass(HOLOGRAM_CLASSES);
+        if (apiClass == null || hologramClass == null) {
+            logger.info("FancyHolograms plugin found but API not accessible. Using text displays for hologram display.");
+            return null;
+        }
+
+        try {
+            return new FancyHologramsBinding(fancyHologramsPlugin, apiClass, hologramClass);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.info("FancyHolograms API is not compatible (" + e.getMessage()
+                + "). Using text displays for hologram display.");
+            return null;
+        }
+    }
+
+    void create(String hologramId, Location location, List<String> lines) throws Throwable {
+        Object hologram = newHologram.invoke(hologramId, location);
+        setText.invoke(hologram, lines);
+        addHologram.invoke(manager(), hologram);
+        createHologram.invoke(hologram);
+        showHologram.invoke(hologram);
+    }
+
+    void remove(String hologramId) throws Throwable {
+        removeHologram.invoke(manager(), hologramId);
+    }
+
+    private Object manager() throws Throwable {
+        Object api = getApi != null ? getApi.invoke() : fallbackApi;
+        return getHologramManager.invoke(api);
+    }
+
+    private static Class<?> findClass(String[] candidates) {
+        for (String name : candidates) {
+            try {
+                return Class.forName(name);
+            } catch (ClassNotFoundException ignored) {
+                // Try next path
+            }
+        }
+        return null;
+    }
+}
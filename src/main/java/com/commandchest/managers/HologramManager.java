@@ -3,48 +3,73 @@ package com.commandchest.managers;
 import com.commandchest.CommandChest;
 import com.commandchest.models.ChestData;
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.ArmorStand;
-import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.TextDisplay;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Spawns and removes chest holograms. Public methods may be called from any thread; the work is done on
+ * the thread owning the chest's location (its region on Folia, the main thread elsewhere).
+ */
 public class HologramManager {
 
     private final CommandChest plugin;
-    private final Map<Location, List<UUID>> armorStandMap; // chest location -> list of armor stand UUIDs (fallback)
+    private final Map<Location, UUID> textDisplayMap; // chest location -> text display UUID (fallback)
     private final Map<Location, String> fancyHologramMap; // chest location -> FancyHolograms hologram ID
-    private final boolean useFancyHolograms;
+    private final FancyHologramsBinding fancyHolograms; // null when FancyHolograms isn't usable
+    private final float viewRange;
+    private boolean fancyFailureLogged;
 
     public HologramManager(CommandChest plugin) {
         this.plugin = plugin;
-        this.armorStandMap = new HashMap<>();
-        this.fancyHologramMap = new HashMap<>();
+        this.textDisplayMap = new ConcurrentHashMap<>();
+        // Display view range is a multiple of 64 blocks
+        this.viewRange = (float) Math.max(1.0, plugin.getConfig().getDouble("holograms.view-distance", 48.0)) / 64.0f;
+        this.fancyHologramMap = new ConcurrentHashMap<>();
         
-        // Check if FancyHolograms is available and API is accessible
+        // Check if FancyHolograms is available and resolve its API once
         org.bukkit.plugin.Plugin fancyHologramsPlugin = plugin.getServer().getPluginManager().getPlugin("FancyHolograms");
-        boolean hasPlugin = fancyHologramsPlugin != null;
-        boolean hasApi = false;
-        
-        if (hasPlugin) {
-            // Try to verify API is accessible
-            try {
-                Class.forName("de.oliver.fancyholograms.api.FancyHologramsAPI");
-                hasApi = true;
+        if (fancyHologramsPlugin != null) {
+            this.fancyHolograms = FancyHologramsBinding.resolve(fancyHologramsPlugin, plugin.getLogger());
+            if (fancyHolograms != null) {
                 plugin.getLogger().info("FancyHolograms detected! Using FancyHolograms for hologram display.");
-            } catch (ClassNotFoundException e) {
-                // FancyHolograms is installed but API not accessible - use armor stands
-                plugin.getLogger().info("FancyHolograms plugin found but API not accessible. Using armor stands for hologram display.");
             }
         } else {
-            plugin.getLogger().info("FancyHolograms not found. Using vanilla armor stands for hologram display.");
+            this.fancyHolograms = null;
+            plugin.getLogger().info("FancyHolograms not found. Using text displays for hologram display.");
         }
-        
-        this.useFancyHolograms = hasPlugin && hasApi;
+    }
+
+    /**
+     * Whether holograms are limited to chests near players. FancyHolograms culls its own holograms.
+     */
+    public boolean isCulled() {
+        return fancyHolograms == null;
+    }
+
+    public boolean shouldDisplay(ChestData chestData) {
+        return chestData.isNameVisible() && !chestData.getNameLines().isEmpty();
+    }
+
+    public boolean hasHologram(Location chestLocation) {
+        return textDisplayMap.containsKey(chestLocation) || fancyHologramMap.containsKey(chestLocation);
+    }
+
+    public Set<Location> getHologramLocations() {
+        Set<Location> locations = new HashSet<>(textDisplayMap.keySet());
+        locations.addAll(fancyHologramMap.keySet());
+        return locations;
     }
 
     public void createHologram(ChestData chestData) {
-        if (!chestData.isNameVisible() || chestData.getNameLines().isEmpty()) {
+        if (!shouldDisplay(chestData)) {
             return;
         }
 
@@ -52,216 +77,170 @@ public class HologramManager {
         if (chestLocation.getWorld() == null) {
             return;
         }
+        plugin.getTaskScheduler().executeAt(chestLocation, () -> createHologramHere(chestData));
+    }
 
+    private void createHologramHere(ChestData chestData) {
         // Remove existing holograms for this chest
-        removeHologram(chestLocation);
+        removeHologramHere(chestData.getLocation());
 
-        if (useFancyHolograms) {
+        if (fancyHolograms != null) {
             createFancyHologram(chestData);
         } else {
-            createArmorStandHologram(chestData);
+            createTextDisplayHologram(chestData);
         }
     }
 
     private void createFancyHologram(ChestData chestData) {
+        Location chestLocation = chestData.getLocation();
+        String hologramId = "commandchest_" + chestData.getChestUUID().toString();
+        Location hologramLocation = chestLocation.clone().add(0.5, 1.0, 0.5);
+
+        List<String> formattedLines = new ArrayList<>();
+        for (String line : chestData.getNameLines()) {
+            // FancyHolograms supports MiniMessage, so we can use color codes directly
+            formattedLines.add(ChatColor.translateAlternateColorCodes('&', line));
+        }
+
         try {
-            // Try to get FancyHolograms plugin instance
-            org.bukkit.plugin.Plugin fancyHologramsPlugin = plugin.getServer().getPluginManager().getPlugin("FancyHolograms");
-            if (fancyHologramsPlugin == null) {
-                createArmorStandHologram(chestData);
-                return;
-            }
-            
-            // Try multiple possible API class paths
-            Class<?> apiClass = null;
-            String[] possiblePaths = {
-                "de.oliver.fancyholograms.api.FancyHologramsAPI",
-                "de.oliver.fancyholograms.FancyHolograms",
-                "de.oliver.fancyholograms.api.hologram.FancyHologramsAPI"
-            };
-            
-            for (String path : possiblePaths) {
-                try {
-                    apiClass = Class.forName(path);
-                    break;
-                } catch (ClassNotFoundException ignored) {
-                    // Try next path
-                }
-            }
-            
-            if (apiClass == null) {
-                plugin.getLogger().warning("FancyHolograms API class not found. Falling back to armor stands.");
-                createArmorStandHologram(chestData);
-                return;
-            }
-            
-            // Get API instance
-            Object api;
-            try {
-                api = apiClass.getMethod("get").invoke(null);
-            } catch (Exception e) {
-                // Try getting from plugin instance
-                api = fancyHologramsPlugin;
-            }
-            
-            Location chestLocation = chestData.getLocation();
-            String hologramId = "commandchest_" + chestData.getChestUUID().toString();
-            Location hologramLocation = chestLocation.clone().add(0.5, 1.0, 0.5);
-            
-            // Get hologram manager
-            Object hologramManager;
-            try {
-                hologramManager = apiClass.getMethod("getHologramManager").invoke(api);
-            } catch (Exception e) {
-                // Try alternative method name
-                hologramManager = apiClass.getMethod("getHologramManager").invoke(api);
-            }
-            
-            // Try to find Hologram class
-            Class<?> hologramClass = null;
-            String[] hologramPaths = {
-                "de.oliver.fancyholograms.api.hologram.Hologram",
-                "de.oliver.fancyholograms.hologram.Hologram",
-                "de.oliver.fancyholograms.api.Hologram"
-            };
-            
-            for (String path : hologramPaths) {
-                try {
-                    hologramClass = Class.forName(path);
-                    break;
-                } catch (ClassNotFoundException ignored) {
-                    // Try next path
-                }
-            }
-            
-            if (hologramClass == null) {
-                plugin.getLogger().warning("FancyHolograms Hologram class not found. Falling back to armor stands.");
-                createArmorStandHologram(chestData);
-                return;
-            }
-            
-            // Create hologram
-            Object hologram = hologramClass.getConstructor(String.class, Location.class)
-                    .newInstance(hologramId, hologramLocation);
-            
-            // Set text lines
-            List<String> nameLines = chestData.getNameLines();
-            List<String> formattedLines = new ArrayList<>();
-            for (String line : nameLines) {
-                // FancyHolograms supports MiniMessage, so we can use color codes directly
-                formattedLines.add(ChatColor.translateAlternateColorCodes('&', line));
-            }
-            
-            // Set text using setText method
-            hologramClass.getMethod("setText", List.class).invoke(hologram, formattedLines);
-            
-            // Create and show the hologram
-            Class<?> managerClass = hologramManager.getClass();
-            managerClass.getMethod("addHologram", hologramClass).invoke(hologramManager, hologram);
-            hologramClass.getMethod("createHologram").invoke(hologram);
-            hologramClass.getMethod("showHologram").invoke(hologram);
-            
+            fancyHolograms.create(hologramId, hologramLocation, formattedLines);
             fancyHologramMap.put(chestLocation, hologramId);
-        } catch (Exception e) {
-            // Any error - silently fall back to armor stands
-            // Don't log to avoid spam since this happens on every hologram creation
-            createArmorStandHologram(chestData);
+            plugin.getMetrics().hologramCreated();
+        } catch (Throwable e) {
+            // Fall back to text displays; log only the first failure to avoid spam
+            if (!fancyFailureLogged) {
+                fancyFailureLogged = true;
+                plugin.getLogger().warning("Failed to create FancyHolograms hologram, using text displays: " + e);
+            }
+            createTextDisplayHologram(chestData);
         }
     }
 
-    private void createArmorStandHologram(ChestData chestData) {
+    private void createTextDisplayHologram(ChestData chestData) {
         Location chestLocation = chestData.getLocation();
-        List<UUID> armorStandUUIDs = new ArrayList<>();
-        List<String> nameLines = chestData.getNameLines();
-
-        // Create armor stands from bottom to top
-        for (int i = 0; i < nameLines.size(); i++) {
-            String line = nameLines.get(i);
-            Location standLocation = chestLocation.clone().add(0.5, 1.0 + (nameLines.size() - 1 - i) * 0.3, 0.5);
-
-            ArmorStand armorStand = (ArmorStand) chestLocation.getWorld().spawnEntity(standLocation, EntityType.ARMOR_STAND);
-            armorStand.setVisible(false);
-            armorStand.setGravity(false);
-            armorStand.setInvulnerable(true);
-            armorStand.setCustomNameVisible(true);
-            armorStand.setCustomName(ChatColor.translateAlternateColorCodes('&', line));
-            armorStand.setMarker(true);
-            armorStand.setSmall(i == nameLines.size() - 1); // Make top line smaller if multiple lines
-
-            armorStandUUIDs.add(armorStand.getUniqueId());
+        World world = chestLocation.getWorld();
+        if (!world.isChunkLoaded(chestLocation.getBlockX() >> 4, chestLocation.getBlockZ() >> 4)) {
+            return; // Spawned when the chunk loads - never load a chunk just for a hologram
         }
 
-        armorStandMap.put(chestLocation, armorStandUUIDs);
+        // One display for all lines. It isn't saved with the chunk, so nothing is left behind if we miss a
+        // removal, and the entity tracker only sends it to players within its view range
+        String text = String.join("\n", chestData.getNameLines().stream()
+            .map(line -> ChatColor.translateAlternateColorCodes('&', line))
+            .toList());
+        Location displayLocation = chestLocation.clone().add(0.5, 1.2, 0.5);
+        TextDisplay display = world.spawn(displayLocation, TextDisplay.class, spawned -> {
+            spawned.setPersistent(false);
+            spawned.setText(text);
+            spawned.setBillboard(Display.Billboard.CENTER);
+            spawned.setViewRange(viewRange);
+        });
+
+        textDisplayMap.put(chestLocation, display.getUniqueId());
+        plugin.getMetrics().hologramCreated();
     }
 
     public void updateHologram(ChestData chestData) {
-        removeHologram(chestData.getLocation());
-        createHologram(chestData);
+        Location chestLocation = chestData.getLocation();
+        if (chestLocation.getWorld() == null) {
+            return;
+        }
+        plugin.getTaskScheduler().executeAt(chestLocation, () -> {
+            removeHologramHere(chestLocation);
+            if (shouldDisplay(chestData)) {
+                createHologramHere(chestData);
+            }
+        });
     }
 
     public void removeHologram(Location chestLocation) {
+        if (!hasHologram(chestLocation)) {
+            return;
+        }
+        if (chestLocation.getWorld() == null) {
+            removeHologramHere(chestLocation);
+            return;
+        }
+        plugin.getTaskScheduler().executeAt(chestLocation, () -> removeHologramHere(chestLocation));
+    }
+
+    private void removeHologramHere(Location chestLocation) {
         // Remove FancyHolograms hologram if exists
         String hologramId = fancyHologramMap.remove(chestLocation);
-        if (hologramId != null && useFancyHolograms) {
+        if (hologramId != null) {
+            plugin.getMetrics().hologramRemoved();
+        }
+        if (hologramId != null && fancyHolograms != null) {
             try {
-                org.bukkit.plugin.Plugin fancyHologramsPlugin = plugin.getServer().getPluginManager().getPlugin("FancyHolograms");
-                if (fancyHologramsPlugin == null) return;
-                
-                // Try to find API class
-                Class<?> apiClass = null;
-                String[] possiblePaths = {
-                    "de.oliver.fancyholograms.api.FancyHologramsAPI",
-                    "de.oliver.fancyholograms.FancyHolograms",
-                    "de.oliver.fancyholograms.api.hologram.FancyHologramsAPI"
-                };
-                
-                for (String path : possiblePaths) {
-                    try {
-                        apiClass = Class.forName(path);
-                        break;
-                    } catch (ClassNotFoundException ignored) {
-                        // Try next path
-                    }
-                }
-                
-                if (apiClass == null) return;
-                
-                Object api = apiClass.getMethod("get").invoke(null);
-                Object hologramManager = apiClass.getMethod("getHologramManager").invoke(api);
-                Class<?> managerClass = hologramManager.getClass();
-                managerClass.getMethod("removeHologram", String.class).invoke(hologramManager, hologramId);
-            } catch (Exception e) {
-                // Silently fail - armor stands will be cleaned up anyway
+                fancyHolograms.remove(hologramId);
+            } catch (Throwable e) {
+                // Silently fail - FancyHolograms cleans up its own holograms
             }
         }
         
-        // Remove armor stand holograms if exists
-        List<UUID> armorStandUUIDs = armorStandMap.remove(chestLocation);
-        if (armorStandUUIDs != null && chestLocation.getWorld() != null) {
-            for (UUID uuid : armorStandUUIDs) {
-                org.bukkit.entity.Entity entity = chestLocation.getWorld().getEntity(uuid);
-                if (entity != null && entity instanceof ArmorStand) {
-                    entity.remove();
-                }
+        // Remove text display hologram if exists
+        UUID displayUUID = textDisplayMap.remove(chestLocation);
+        if (displayUUID != null) {
+            plugin.getMetrics().hologramRemoved();
+        }
+        if (displayUUID != null && chestLocation.getWorld() != null) {
+            Entity entity = chestLocation.getWorld().getEntity(displayUUID);
+            if (entity instanceof TextDisplay) {
+                entity.remove();
             }
         }
     }
 
+    /**
+     * Removes every hologram right away, e.g. while the plugin is disabling and nothing can be scheduled.
+     * On Folia text displays of other regions are only forgotten; they aren't persistent, so the server
+     * discards them with their chunk.
+     */
     public void removeAllHolograms() {
         for (Location location : new HashSet<>(fancyHologramMap.keySet())) {
-            removeHologram(location);
+            removeHologramHere(location);
+        }
+        for (Location location : new HashSet<>(textDisplayMap.keySet())) {
+            if (location.getWorld() == null || plugin.getTaskScheduler().isOwnedByCurrentThread(location)) {
+                removeHologramHere(location);
+            } else {
+                textDisplayMap.remove(location);
+            }
         }
-        for (Location location : new HashSet<>(armorStandMap.keySet())) {
-            removeHologram(location);
+    }
+
+    public void unloadHologramsForChunk(Chunk chunk) {
+        // Text displays aren't persistent, so the server discards them with the chunk
+        for (ChestData chestData : plugin.getChestDataManager().getChestsInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            textDisplayMap.remove(chestData.getLocation());
         }
     }
 
-    public void loadHologramsForWorld(org.bukkit.World world) {
-        // Load holograms for all chests in the given world
-        for (ChestData chestData : plugin.getChestDataManager().getAllChestData()) {
-            if (chestData.getLocation().getWorld().equals(world)) {
-                createHologram(chestData);
+    /**
+     * Removes armor stand holograms spawned by older versions, which were saved with the chunk and could leak.
+     * Returns the number of removed stands.
+     */
+    public int removeLegacyArmorStands(List<Entity> entities) {
+        int removed = 0;
+        for (Entity entity : entities) {
+            if (!(entity instanceof ArmorStand stand) || !stand.isMarker() || stand.isVisible()
+                || !stand.isCustomNameVisible()) {
+                continue;
+            }
+
+            // Legacy stands sat at the block centre, up to a few lines above the chest
+            Location location = stand.getLocation();
+            if (location.getX() - location.getBlockX() != 0.5 || location.getZ() - location.getBlockZ() != 0.5) {
+                continue;
+            }
+            for (int dy = 1; dy <= 4; dy++) {
+                if (plugin.getChestDataManager().hasChestData(location.clone().subtract(0, dy, 0))) {
+                    stand.remove();
+                    removed++;
+                    break;
+                }
             }
         }
+        return removed;
     }
 }
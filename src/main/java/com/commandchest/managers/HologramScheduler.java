@@ -0,0 +1,242 @@
+package com.commandchest.managers;
+
+import com.commandchest.CommandChest;
+import com.commandchest.models.ChestData;
+import com.commandchest.util.TaskScheduler;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Decides which holograms should exist and spawns or despawns them a few per tick.
+ * Built-in holograms are only kept for chests in loaded chunks with a player within
+ * {@code holograms.spawn-radius}; FancyHolograms does its own culling, so with it every loaded chest gets one.
+ * With FancyHolograms a scan only re-evaluates the chests registered, removed or edited since the last one,
+ * so its cost follows the changes rather than the number of chests.
+ * A world load, a chunk full of chests or a restart therefore never spawns everything in a single tick.
+ * The scheduler itself runs on the global region; on Folia each spawn or removal is handed to the region
+ * owning the chest.
+ */
+public class HologramScheduler {
+
+    private static final double DESPAWN_MARGIN = 16.0; // keeps holograms at the edge of the radius from flickering
+
+    private final CommandChest plugin;
+    private final HologramManager hologramManager;
+    private final Map<UUID, ChestData> pendingSpawns; // chest UUID -> chest, in request order
+    private final Set<Location> pendingDespawns;
+    private final Queue<ChestData> changedChests; // FancyHolograms only; added from any thread
+    private final double spawnRadius;
+    private final int operationsPerTick;
+    private final long scanInterval;
+    private TaskScheduler.Task task;
+    private long ticks;
+    private volatile boolean scanRequested; // set from chunk load events, which may be on region threads
+
+    // Startup report: logged once the first backlog has been worked off
+    private boolean startupReported;
+    private long startupTicks;
+    private long startupNanos;
+    private int startupSpawns;
+
+    public HologramScheduler(CommandChest plugin, HologramManager hologramManager) {
+        this.plugin = plugin;
+        this.hologramManager = hologramManager;
+        this.pendingSpawns = new LinkedHashMap<>();
+        this.pendingDespawns = new LinkedHashSet<>();
+        this.changedChests = new ConcurrentLinkedQueue<>();
+        this.spawnRadius = Math.max(1.0, plugin.getConfig().getDouble("holograms.spawn-radius", 56.0));
+        this.operationsPerTick = Math.max(1, plugin.getConfig().getInt("holograms.max-operations-per-tick", 16));
+        this.scanInterval = Math.max(1L, plugin.getConfig().getLong("holograms.update-interval-ticks", 20L));
+    }
+
+    public void start() {
+        scanRequested = true;
+        task = plugin.getTaskScheduler().runTimer(this::tick, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        pendingSpawns.clear();
+        pendingDespawns.clear();
+        changedChests.clear();
+    }
+
+    /**
+     * Re-evaluates which holograms are wanted on the next tick instead of waiting for the next scan,
+     * e.g. when a chunk with chests loads.
+     */
+    public void requestScan() {
+        scanRequested = true;
+    }
+
+    /**
+     * Notes that a chest was registered, removed or edited. With FancyHolograms only such chests are looked at
+     * by the next scan; built-in holograms are found around players on every scan anyway.
+     */
+    public void chestChanged(ChestData chestData) {
+        if (!hologramManager.isCulled()) {
+            changedChests.add(chestData);
+            scanRequested = true;
+        }
+    }
+
+    public int getPendingOperations() {
+        return pendingSpawns.size() + pendingDespawns.size();
+    }
+
+    private void tick() {
+        if (scanRequested || ++ticks % scanInterval == 0) {
+            scanRequested = false;
+            scan();
+        }
+        if (pendingSpawns.isEmpty() && pendingDespawns.isEmpty()) {
+            startupReported = true; // nothing to report if the first scan found no work
+            return;
+        }
+
+        long start = System.nanoTime();
+        int budget = operationsPerTick;
+        int spawns = 0;
+
+        // Despawns first: they are cheap and free up room on the client
+        Iterator<Location> despawns = pendingDespawns.iterator();
+        while (budget > 0 && despawns.hasNext()) {
+            hologramManager.removeHologram(despawns.next());
+            despawns.remove();
+            budget--;
+        }
+
+        Iterator<ChestData> spawnQueue = pendingSpawns.values().iterator();
+        while (budget > 0 && spawnQueue.hasNext()) {
+            ChestData chestData = spawnQueue.next();
+            spawnQueue.remove();
+            if (chestData.getLocation().getWorld() == null) {
+                continue;
+            }
+            // The chest may have been removed or its chunk unloaded since it was queued
+            plugin.getTaskScheduler().executeAt(chestData.getLocation(), () -> {
+                if (isStillWanted(chestData)) {
+                    hologramManager.createHologram(chestData);
+                }
+            });
+            spawns++;
+            budget--;
+        }
+
+        if (!startupReported) {
+            startupTicks++;
+            startupNanos += System.nanoTime() - start;
+            startupSpawns += spawns;
+            if (pendingSpawns.isEmpty() && pendingDespawns.isEmpty()) {
+                startupReported = true;
+                plugin.getLogger().info("Spawned " + startupSpawns + " hologram(s) over " + startupTicks + " tick(s) in "
+                    + String.format("%.1f", startupNanos / 1_000_000.0) + " ms.");
+            }
+        }
+    }
+
+    private void scan() {
+        if (hologramManager.isCulled()) {
+            scanNearPlayers();
+        } else {
+            applyChanges();
+        }
+    }
+
+    private void scanNearPlayers() {
+        Map<UUID, ChestData> wanted = new HashMap<>();
+        Set<Location> keep = new HashSet<>();
+
+        double spawnRadiusSquared = spawnRadius * spawnRadius;
+        for (World world : plugin.getServer().getWorlds()) {
+            for (Player player : world.getPlayers()) {
+                Location playerLocation = player.getLocation();
+                for (ChestData chestData : plugin.getChestDataManager().getChestsInRadius(playerLocation,
+                        spawnRadius + DESPAWN_MARGIN)) {
+                    Location location = chestData.getLocation();
+                    if (!hologramManager.shouldDisplay(chestData)) {
+                        continue;
+                    }
+                    keep.add(location);
+                    if (!wanted.containsKey(chestData.getChestUUID())
+                            && distanceSquared(location, playerLocation) <= spawnRadiusSquared
+                            && isChunkLoaded(location)) {
+                        wanted.put(chestData.getChestUUID(), chestData);
+                    }
+                }
+            }
+        }
+
+        for (ChestData chestData : wanted.values()) {
+            if (!hologramManager.hasHologram(chestData.getLocation())) {
+                pendingDespawns.remove(chestData.getLocation());
+                pendingSpawns.putIfAbsent(chestData.getChestUUID(), chestData);
+            }
+        }
+        pendingDespawns.removeIf(keep::contains);
+        for (Location location : hologramManager.getHologramLocations()) {
+            if (!keep.contains(location)) {
+                pendingDespawns.add(location);
+            }
+        }
+        // Drop queued spawns nobody is near any more
+        pendingSpawns.values().removeIf(chestData -> !keep.contains(chestData.getLocation()));
+    }
+
+    /**
+     * FancyHolograms: every registered chest that should show its name has a hologram, so only the blocks of
+     * changed chests need to be compared with what is spawned there.
+     */
+    private void applyChanges() {
+        ChestData changed;
+        while ((changed = changedChests.poll()) != null) {
+            Location location = changed.getLocation();
+            // The block may hold another configuration by now, or none
+            ChestData current = location.getWorld() != null
+                ? plugin.getChestDataManager().getChestData(location) : null;
+            if (current != changed) {
+                pendingSpawns.remove(changed.getChestUUID());
+            }
+
+            if (current != null && hologramManager.shouldDisplay(current)) {
+                if (!hologramManager.hasHologram(location)) {
+                    pendingDespawns.remove(location);
+                    pendingSpawns.putIfAbsent(current.getChestUUID(), current);
+                }
+            } else {
+                if (current != null) {
+                    pendingSpawns.remove(current.getChestUUID());
+                }
+                if (hologramManager.hasHologram(location)) {
+                    pendingDespawns.add(location);
+                }
+            }
+        }
+    }
+
+    private boolean isStillWanted(ChestData chestData) {
+        Location location = chestData.getLocation();
+        return location.getWorld() != null
+            && plugin.getChestDataManager().getChestData(location) == chestData
+            && (!hologramManager.isCulled() || isChunkLoaded(location))
+            && !hologramManager.hasHologram(location);
+    }
+
+    private static boolean isChunkLoaded(Location location) {
+        return location.getWorld().isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    private static double distanceSquared(Location chest, Location player) {
+        double dx = chest.getBlockX() + 0.5 - player.getX();
+        double dy = chest.getBlockY() + 0.5 - player.getY();
+        double dz = chest.getBlockZ() + 0.5 - player.getZ();
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
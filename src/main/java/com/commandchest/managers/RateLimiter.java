@@ -0,0 +1,110 @@
+package com.commandchest.managers;
+
+import com.commandchest.CommandChest;
+import com.commandchest.models.ChestData;
+import com.commandchest.util.TaskScheduler;
+import com.commandchest.util.TokenBucket;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Token bucket limits on activations, on top of the per-player cooldown: per chest (all players
+ * together), per player (all chests together) and for the whole server. An activation has to get a
+ * token from every enabled level. Levels are configured under {@code rate-limits} and off by default.
+ */
+public class RateLimiter {
+
+    private static final long SWEEP_INTERVAL_TICKS = 1200L;
+    private static final Function<UUID, AtomicLong> NEW_STATE = playerUUID -> new AtomicLong();
+
+    private final CommandChest plugin;
+    private final long origin; // TokenBucket times must not be negative
+    private final TokenBucket perChest;
+    private final TokenBucket perPlayer;
+    private final TokenBucket global;
+    private final AtomicLong globalState;
+    private final Map<UUID, AtomicLong> playerStates;
+    private TaskScheduler.Task sweepTask;
+
+    public RateLimiter(CommandChest plugin) {
+        this.plugin = plugin;
+        this.origin = System.nanoTime();
+        this.perChest = readLimit("rate-limits.per-chest");
+        this.perPlayer = readLimit("rate-limits.per-player");
+        this.global = readLimit("rate-limits.global");
+        this.globalState = new AtomicLong();
+        this.playerStates = new ConcurrentHashMap<>();
+    }
+
+    public void start() {
+        if (perPlayer != null) {
+            // Players whose bucket has refilled behave exactly like players without one
+            sweepTask = plugin.getTaskScheduler().runTimer(() -> {
+                long now = now();
+                playerStates.values().removeIf(state -> TokenBucket.isIdle(state.get(), now));
+            }, SWEEP_INTERVAL_TICKS, SWEEP_INTERVAL_TICKS);
+        }
+    }
+
+    public void shutdown() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return perChest != null || perPlayer != null || global != null;
+    }
+
+    /**
+     * Takes a token from every enabled level, or none if any level is out of tokens.
+     */
+    public boolean tryAcquire(ChestData chestData, UUID playerUUID) {
+        if (!isEnabled()) {
+            return true;
+        }
+
+        long now = now();
+        AtomicLong chestState = perChest != null ? chestData.getRateLimitState() : null;
+        AtomicLong playerState = perPlayer != null ? playerStates.computeIfAbsent(playerUUID, NEW_STATE) : null;
+        // Each level is taken on its own; a refusal further down gives back the tokens already taken,
+        // so a refused activation costs nothing and a racing one never pays twice
+        if (chestState != null && !perChest.tryAcquire(chestState, now)) {
+            return false;
+        }
+        if (playerState != null && !perPlayer.tryAcquire(playerState, now)) {
+            if (chestState != null) {
+                perChest.release(chestState);
+            }
+            return false;
+        }
+        if (global != null && !global.tryAcquire(globalState, now)) {
+            if (chestState != null) {
+                perChest.release(chestState);
+            }
+            if (playerState != null) {
+                perPlayer.release(playerState);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    private TokenBucket readLimit(String path) {
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection(path);
+        if (section == null) {
+            return null;
+        }
+        return TokenBucket.of(section.getDouble("per-second", 0.0), section.getInt("burst", 0));
+    }
+}
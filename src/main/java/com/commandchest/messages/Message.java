@@ -0,0 +1,98 @@
+package com.commandchest.messages;
+
+/**
+ * Every configurable message, with its key under {@code messages.} in config.yml, the text used when the key
+ * is missing and the placeholders it accepts, in the order values are passed to {@link MessageCatalog#format}.
+ */
+public enum Message {
+
+    // Command messages
+    STICK_RECEIVED("command.stick-received", "&aYou have received the configuration stick!"),
+    NO_PERMISSION("command.no-permission", "&cYou don't have permission to use this command."),
+    RELOADED("command.reloaded", "&aCommandChest messages reloaded."),
+
+    // GUI messages
+    GUI_MAIN_TITLE("gui.main-title", "&6Chest Configuration"),
+    GUI_NAME_EDITOR_TITLE("gui.name-editor-title", "&6Edit Chest Name"),
+    BUTTON_NAME("gui.button-name", "&eChest Name"),
+    BUTTON_COMMAND("gui.button-command", "&eCommand"),
+    BUTTON_COOLDOWN("gui.button-cooldown", "&eCooldown"),
+    BUTTON_ACTIVATION("gui.button-activation", "&eActivation Method"),
+    BUTTON_ITEM("gui.button-item", "&eRequired Item"),
+    BUTTON_DELETE("gui.button-delete", "&cDelete Configuration"),
+    BUTTON_SAVE("gui.button-save", "&aSave"),
+    BUTTON_CLOSE("gui.button-close", "&7Close"),
+    BUTTON_BACK("gui.button-back", "&7Back"),
+    BUTTON_ADD_LINE("gui.button-add-line", "&aAdd Line"),
+    BUTTON_REMOVE_LINE("gui.button-remove-line", "&cRemove Line"),
+    BUTTON_TOGGLE_VISIBILITY("gui.button-toggle-visibility", "&eToggle Visibility"),
+    DESCRIPTION_NAME("gui.description-name", "&7Click to edit the chest name"),
+    DESCRIPTION_COMMAND("gui.description-command", "&7Left-click to set the command, right-click to add another"),
+    DESCRIPTION_COOLDOWN("gui.description-cooldown", "&7Click to set cooldown (seconds)"),
+    DESCRIPTION_ACTIVATION_LEFT("gui.description-activation-left", "&7Activate on left click"),
+    DESCRIPTION_ACTIVATION_RIGHT("gui.description-activation-right", "&7Activate on right click"),
+    DESCRIPTION_ACTIVATION_BOTH("gui.description-activation-both", "&7Activate on both clicks"),
+    DESCRIPTION_ACTIVATION_SHIFT("gui.description-activation-shift", "&7Activate on shift click"),
+    DESCRIPTION_ITEM("gui.description-item", "&7Place item here to require it"),
+    DESCRIPTION_DELETE("gui.description-delete", "&7Click to delete this configuration"),
+    DESCRIPTION_SAVE("gui.description-save", "&7Click to save changes"),
+    DESCRIPTION_CLOSE("gui.description-close", "&7Click to close"),
+    DESCRIPTION_BACK("gui.description-back", "&7Click to go back"),
+    DESCRIPTION_ADD_LINE("gui.description-add-line", "&7Click to add a new line"),
+    DESCRIPTION_REMOVE_LINE("gui.description-remove-line", "&7Click to remove this line"),
+    DESCRIPTION_TOGGLE_VISIBILITY("gui.description-toggle-visibility", "&7Click to toggle name visibility"),
+    STATUS_ENABLED("gui.status-enabled", "&aEnabled"),
+    STATUS_DISABLED("gui.status-disabled", "&cDisabled"),
+    STATUS_CURRENT("gui.status-current", "&7Current: &e{value}", "value"),
+    STATUS_NONE("gui.status-none", "&7None"),
+    STATUS_VISIBLE("gui.status-visible", "&aVisible"),
+    STATUS_HIDDEN("gui.status-hidden", "&cHidden"),
+
+    // Chat input prompts
+    ENTER_COMMAND("chat.enter-command", "&aPlease type the command to execute (without /):"),
+    ENTER_COOLDOWN("chat.enter-cooldown", "&aPlease type the cooldown in seconds:"),
+    ENTER_NAME_LINE("chat.enter-name-line", "&aPlease type a line for the chest name:"),
+    CANCEL_INPUT("chat.cancel-input", "&cConfiguration cancelled."),
+    INVALID_COOLDOWN("chat.invalid-cooldown", "&cInvalid cooldown. Please enter a number."),
+    COMMAND_SET("chat.command-set", "&aCommand set to: &e{command}", "command"),
+    COMMAND_ADDED("chat.command-added", "&aCommand added: &e{command}", "command"),
+    COOLDOWN_SET("chat.cooldown-set", "&aCooldown set to: &e{cooldown} seconds", "cooldown"),
+    NAME_LINE_ADDED("chat.name-line-added", "&aName line added!"),
+
+    // Activation messages
+    RATE_LIMITED("activation.rate-limited", "&cThis chest is busy right now. Please try again in a moment."),
+    ON_COOLDOWN("activation.on-cooldown", "&cThis chest is on cooldown. Please wait {time} seconds.", "time"),
+    ITEM_REQUIRED("activation.item-required", "&cYou must be holding the required item to use this chest."),
+    ACTIVATION_METHOD_MISMATCH("activation.activation-method-mismatch", "&cThis chest cannot be activated with this click type."),
+    COMMAND_EXECUTED("activation.command-executed", "&aCommand executed!"),
+    COMMAND_FAILED("activation.command-failed", "&cFailed to execute command."),
+
+    // Configuration messages
+    CHEST_CONFIGURED("config.chest-configured", "&aChest configured successfully!"),
+    CHEST_DELETED("config.chest-deleted", "&aChest configuration deleted."),
+    CHEST_NOT_CONFIGURED("config.chest-not-configured", "&cThis chest is not configured."),
+    INVALID_BLOCK("config.invalid-block", "&cYou can only configure container blocks (chests, barrels, etc.)."),
+    NO_STICK("config.no-stick", "&cYou must be holding the configuration stick to configure chests.");
+
+    private final String key;
+    private final String defaultText;
+    private final String[] placeholders;
+
+    Message(String key, String defaultText, String... placeholders) {
+        this.key = key;
+        this.defaultText = defaultText;
+        this.placeholders = placeholders;
+    }
+
+    public String getPath() {
+        return "messages." + key;
+    }
+
+    public String getDefaultText() {
+        return defaultText;
+    }
+
+    String[] getPlaceholders() {
+        return placeholders;
+    }
+}
@@ -0,0 +1,42 @@
+package com.commandchest.messages;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.FileConfiguration;
+
+/**
+ * All messages from config.yml, compiled once at startup and again on {@code /cchest reload}.
+ * Looking a message up is an array access; nothing walks the configuration tree on the hot path.
+ */
+public class MessageCatalog {
+
+    private volatile MessageTemplate[] templates; // indexed by Message ordinal, swapped as a whole on reload
+
+    public MessageCatalog(FileConfiguration config) {
+        reload(config);
+    }
+
+    public void reload(FileConfiguration config) {
+        Message[] messages = Message.values();
+        MessageTemplate[] compiled = new MessageTemplate[messages.length];
+        for (Message message : messages) {
+            String raw = config.getString(message.getPath(), message.getDefaultText());
+            compiled[message.ordinal()] = MessageTemplate.compile(raw, message.getPlaceholders());
+        }
+        this.templates = compiled;
+    }
+
+    /**
+     * Returns a message that has no placeholders (or leaves them empty).
+     */
+    public String get(Message message) {
+        return templates[message.ordinal()].render();
+    }
+
+    public String format(Message message, Object... values) {
+        return templates[message.ordinal()].render(values);
+    }
+
+    public void send(CommandSender sender, Message message, Object... values) {
+        sender.sendMessage(templates[message.ordinal()].render(values));
+    }
+}
@@ -0,0 +1,97 @@
+package com.commandchest.messages;
+
+import org.bukkit.ChatColor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message with its colour codes already translated and its placeholders resolved to argument positions.
+ * Messages without placeholders are rendered once; the others are filled in with a single
+ * {@link StringBuilder} pass over the pre-split parts.
+ */
+public final class MessageTemplate {
+
+    private final String text; // fully rendered text, or null if the message has placeholders
+    private final String[] literals; // literals[i] precedes the value of argument slots[i]; one extra trailing literal
+    private final int[] slots;
+    private final int literalLength;
+
+    private MessageTemplate(String text, String[] literals, int[] slots) {
+        this.text = text;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * @param placeholders placeholder names, e.g. {@code "time"} for {@code {time}}, in argument order.
+     *                     Unknown placeholders are left in the text as they are.
+     */
+    public static MessageTemplate compile(String raw, String... placeholders) {
+        String translated = ChatColor.translateAlternateColorCodes('&', raw);
+        if (placeholders.length == 0) {
+            return new MessageTemplate(translated, new String[]{translated}, new int[0]);
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+        while (position < translated.length()) {
+            int open = translated.indexOf('{', position);
+            int close = open < 0 ? -1 : translated.indexOf('}', open);
+            if (close < 0) {
+                literal.append(translated, position, translated.length());
+                break;
+            }
+
+            int slot = indexOf(placeholders, translated.substring(open + 1, close));
+            if (slot < 0) {
+                // Not one of ours - keep the brace as text and continue after it
+                literal.append(translated, position, open + 1);
+                position = open + 1;
+                continue;
+            }
+            literal.append(translated, position, open);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(slot);
+            position = close + 1;
+        }
+        literals.add(literal.toString());
+
+        if (slots.isEmpty()) {
+            return new MessageTemplate(literals.get(0), literals.toArray(new String[0]), new int[0]);
+        }
+        return new MessageTemplate(null, literals.toArray(new String[0]),
+            slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public String render(Object... values) {
+        if (text != null) {
+            return text;
+        }
+
+        StringBuilder builder = new StringBuilder(literalLength + slots.length * 8);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            int slot = slots[i];
+            builder.append(slot < values.length ? values[slot] : "");
+        }
+        return builder.append(literals[slots.length]).toString();
+    }
+
+    private static int indexOf(String[] placeholders, String name) {
+        for (int i = 0; i < placeholders.length; i++) {
+            if (placeholders[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,118 @@
+package com.commandchest.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency recorders for the plugin's hot paths: chest clicks by outcome, command dispatch,
+ * chest loads and saves, and hologram spawns. Everything is lock-free and allocation-free to record, so
+ * it is always on. Read by {@code /cchest stats} and the optional Prometheus endpoint.
+ */
+public class Metrics {
+
+    /**
+     * How a block click handled by the activation listener ended.
+     */
+    public enum Outcome {
+        NOT_A_CHEST,
+        CONFIG_STICK,
+        WRONG_METHOD,
+        ITEM_REQUIRED,
+        ON_COOLDOWN,
+        RATE_LIMITED,
+        NOT_CONFIGURED,
+        ACTIVATED;
+
+        private final String label = name().toLowerCase(Locale.ROOT);
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final LongAdder[] interactions;
+    private final LatencyRecorder interactTime = new LatencyRecorder();
+    private final LatencyRecorder dispatchTime = new LatencyRecorder();
+    private final LatencyRecorder loadTime = new LatencyRecorder();
+    private final LatencyRecorder saveTime = new LatencyRecorder();
+    private final LongAdder chestsLoaded = new LongAdder();
+    private final LongAdder chestsSaved = new LongAdder();
+    private final LongAdder hologramsCreated = new LongAdder();
+    private final LongAdder hologramsRemoved = new LongAdder();
+
+    public Metrics() {
+        this.interactions = new LongAdder[Outcome.values().length];
+        for (int i = 0; i < interactions.length; i++) {
+            interactions[i] = new LongAdder();
+        }
+    }
+
+    public void recordInteract(Outcome outcome, long nanos) {
+        interactions[outcome.ordinal()].increment();
+        interactTime.record(nanos);
+    }
+
+    public void recordDispatch(long nanos) {
+        dispatchTime.record(nanos);
+    }
+
+    /**
+     * A world's chests read from storage.
+     */
+    public void recordLoad(int chests, long nanos) {
+        chestsLoaded.add(chests);
+        loadTime.record(nanos);
+    }
+
+    /**
+     * A batch of chests written by the writer thread.
+     */
+    public void recordSave(int chests, long nanos) {
+        chestsSaved.add(chests);
+        saveTime.record(nanos);
+    }
+
+    public void hologramCreated() {
+        hologramsCreated.increment();
+    }
+
+    public void hologramRemoved() {
+        hologramsRemoved.increment();
+    }
+
+    public long getInteractions(Outcome outcome) {
+        return interactions[outcome.ordinal()].sum();
+    }
+
+    public LatencyRecorder getInteractTime() {
+        return interactTime;
+    }
+
+    public LatencyRecorder getDispatchTime() {
+        return dispatchTime;
+    }
+
+    public LatencyRecorder getLoadTime() {
+        return loadTime;
+    }
+
+    public LatencyRecorder getSaveTime() {
+        return saveTime;
+    }
+
+    public long getChestsLoaded() {
+        return chestsLoaded.sum();
+    }
+
+    public long getChestsSaved() {
+        return chestsSaved.sum();
+    }
+
+    public long getHologramsCreated() {
+        return hologramsCreated.sum();
+    }
+
+    public long getHologramsRemoved() {
+        return hologramsRemoved.sum();
+    }
+}
@@ -0,0 +1,132 @@
+package com.commandchest.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Serves {@link Metrics} in the Prometheus text format on {@code /metrics}, from the JDK's built-in HTTP
+ * server on its own thread. Scrapes only read the counters, so they never touch the server thread.
+ */
+public class PrometheusExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Metrics metrics;
+    private final IntSupplier activationQueueSize;
+    private final IntSupplier saveQueueDepth;
+    private final Logger logger;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PrometheusExporter(Metrics metrics, IntSupplier activationQueueSize, IntSupplier saveQueueDepth,
+                              Logger logger) {
+        this.metrics = metrics;
+        this.activationQueueSize = activationQueueSize;
+        this.saveQueueDepth = saveQueueDepth;
+        this.logger = logger;
+    }
+
+    public void start(String bind, int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(bind, port), 0);
+        } catch (IOException e) {
+            logger.warning("Could not start the metrics endpoint on " + bind + ":" + port + ": " + e.getMessage());
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CommandChest-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+        logger.info("Serving metrics on http://" + bind + ":" + port + "/metrics");
+    }
+
+    public void shutdown() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# HELP commandchest_interactions_total Block clicks handled by the activation listener, by outcome.\n");
+        out.append("# TYPE commandchest_interactions_total counter\n");
+        for (Metrics.Outcome outcome : Metrics.Outcome.values()) {
+            out.append("commandchest_interactions_total{outcome=\"").append(outcome.getLabel()).append("\"} ")
+                .append(metrics.getInteractions(outcome)).append('\n');
+        }
+
+        summary(out, "commandchest_interact_seconds", "Time spent in the activation listener per block click.",
+            metrics.getInteractTime());
+        summary(out, "commandchest_dispatch_seconds", "Time to run one chest command step.",
+            metrics.getDispatchTime());
+        summary(out, "commandchest_load_seconds", "Time to load the chests of a world.", metrics.getLoadTime());
+        summary(out, "commandchest_save_seconds", "Time to write a batch of changed chests.", metrics.getSaveTime());
+
+        counter(out, "commandchest_chests_loaded_total", "Chests loaded from storage.", metrics.getChestsLoaded());
+        counter(out, "commandchest_chests_saved_total", "Chests written to storage.", metrics.getChestsSaved());
+        counter(out, "commandchest_holograms_created_total", "Holograms spawned.", metrics.getHologramsCreated());
+        counter(out, "commandchest_holograms_removed_total", "Holograms removed.", metrics.getHologramsRemoved());
+
+        gauge(out, "commandchest_activation_queue_size", "Activations waiting to run their commands.",
+            activationQueueSize.getAsInt());
+        gauge(out, "commandchest_save_queue_depth", "Chests waiting to be written.", saveQueueDepth.getAsInt());
+        return out.toString();
+    }
+
+    private static void summary(StringBuilder out, String name, String help, LatencyRecorder recorder) {
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : QUANTILES) {
+            out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                .append(seconds(snapshot.getPercentileNanos(quantile))).append('\n');
+        }
+        out.append(name).append("_sum ").append(seconds(snapshot.getSumNanos())).append('\n');
+        out.append(name).append("_count ").append(snapshot.getCount()).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000.0);
+    }
+}
@@ -1,32 +1,53 @@
 package com.commandchest.models;
 
+import com.commandchest.util.ItemSignature;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ChestData {
+
+    // Bits of getChanges(): the groups of persisted fields that changed since the last save
+    public static final int LOCATION = 1;
+    public static final int NAME = 1 << 1;
+    public static final int COMMANDS = 1 << 2;
+    public static final int COOLDOWN = 1 << 3;
+    public static final int ACTIVATION_METHOD = 1 << 4;
+    public static final int REQUIRED_ITEM = 1 << 5;
+    public static final int CLICKS = 1 << 6;
+
     private UUID chestUUID;
     private Location location;
+    private String worldName; // kept separately so saving never depends on the world being loaded
     private List<String> nameLines;
     private boolean nameVisible;
-    private String command;
+    private List<String> commands;
+    private List<CommandTemplate> compiledCommands; // parsed from commands whenever they are set
+    private final AtomicLong clicks = new AtomicLong(); // total activations, for the {clicks} placeholder
+    private final AtomicLong rateLimitState = new AtomicLong(); // per-chest token bucket, not persisted
     private int cooldown; // in seconds
     private ActivationMethod activationMethod;
     private ItemStack requiredItem; // null if no item required
-    private Map<UUID, Long> lastActivationTimes; // player UUID -> timestamp
+    private ItemSignature requiredSignature; // precomputed from requiredItem for activation checks
+    private final AtomicInteger changes = new AtomicInteger(); // set by the setters, cleared by takeChanges()
 
     public ChestData(UUID chestUUID, Location location) {
         this.chestUUID = chestUUID;
         this.location = location;
+        this.worldName = location.getWorld() != null ? location.getWorld().getName() : null;
         this.nameLines = new ArrayList<>();
         this.nameVisible = true;
-        this.command = "";
+        this.commands = List.of();
+        this.compiledCommands = List.of();
         this.cooldown = 0;
         this.activationMethod = ActivationMethod.RIGHT;
         this.requiredItem = null;
-        this.lastActivationTimes = new HashMap<>();
+        // A new chest has never been saved
+        this.changes.set(LOCATION | NAME | COMMANDS | COOLDOWN | ACTIVATION_METHOD | REQUIRED_ITEM | CLICKS);
     }
 
     public UUID getChestUUID() {
@@ -43,6 +64,14 @@ public class ChestData {
 
     public void setLocation(Location location) {
         this.location = location;
+        if (location.getWorld() != null) {
+            this.worldName = location.getWorld().getName();
+        }
+        markChanged(LOCATION);
+    }
+
+    public String getWorldName() {
+        return worldName;
     }
 
     public List<String> getNameLines() {
@@ -51,6 +80,7 @@ public class ChestData {
 
     public void setNameLines(List<String> nameLines) {
         this.nameLines = nameLines != null ? nameLines : new ArrayList<>();
+        markChanged(NAME);
     }
 
     public boolean isNameVisible() {
@@ -59,14 +89,68 @@ public class ChestData {
 
     public void setNameVisible(boolean nameVisible) {
         this.nameVisible = nameVisible;
+        markChanged(NAME);
+    }
+
+    public List<String> getCommands() {
+        return commands;
+    }
+
+    public void setCommands(List<String> commands) {
+        List<String> steps = new ArrayList<>();
+        List<CommandTemplate> compiled = new ArrayList<>();
+        if (commands != null) {
+            for (String command : commands) {
+                CommandTemplate template = command != null ? CommandTemplate.compile(command) : null;
+                if (template != null && !template.isEmpty()) {
+                    steps.add(command);
+                    compiled.add(template);
+                }
+            }
+        }
+        this.commands = Collections.unmodifiableList(steps);
+        this.compiledCommands = Collections.unmodifiableList(compiled);
+        markChanged(COMMANDS);
+    }
+
+    public void addCommand(String command) {
+        List<String> steps = new ArrayList<>(commands);
+        steps.add(command);
+        setCommands(steps);
     }
 
-    public String getCommand() {
-        return command;
+    public List<CommandTemplate> getCompiledCommands() {
+        return compiledCommands;
     }
 
-    public void setCommand(String command) {
-        this.command = command != null ? command : "";
+    /**
+     * True if any step renders {@code {clicks}}, i.e. the click count has to be kept up to date on disk.
+     */
+    public boolean usesClicks() {
+        for (CommandTemplate template : compiledCommands) {
+            if (template.usesClicks()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getClicks() {
+        return clicks.get();
+    }
+
+    public void setClicks(long clicks) {
+        this.clicks.set(Math.max(0L, clicks));
+        markChanged(CLICKS);
+    }
+
+    public long incrementClicks() {
+        markChanged(CLICKS);
+        return clicks.incrementAndGet();
+    }
+
+    public AtomicLong getRateLimitState() {
+        return rateLimitState;
     }
 
     public int getCooldown() {
@@ -75,6 +159,7 @@ public class ChestData {
 
     public void setCooldown(int cooldown) {
         this.cooldown = Math.max(0, cooldown);
+        markChanged(COOLDOWN);
     }
 
     public ActivationMethod getActivationMethod() {
@@ -83,6 +168,7 @@ public class ChestData {
 
     public void setActivationMethod(ActivationMethod activationMethod) {
         this.activationMethod = activationMethod != null ? activationMethod : ActivationMethod.RIGHT;
+        markChanged(ACTIVATION_METHOD);
     }
 
     public ItemStack getRequiredItem() {
@@ -91,29 +177,68 @@ public class ChestData {
 
     public void setRequiredItem(ItemStack requiredItem) {
         this.requiredItem = requiredItem;
+        this.requiredSignature = ItemSignature.of(requiredItem);
+        markChanged(REQUIRED_ITEM);
+    }
+
+    public ItemSignature getRequiredSignature() {
+        return requiredSignature;
     }
 
-    public Map<UUID, Long> getLastActivationTimes() {
-        return lastActivationTimes;
+    /**
+     * The fields changed since the last {@link #takeChanges()}, as a mask of the constants above.
+     */
+    public int getChanges() {
+        return changes.get();
     }
 
-    public void setLastActivationTimes(Map<UUID, Long> lastActivationTimes) {
-        this.lastActivationTimes = lastActivationTimes != null ? lastActivationTimes : new HashMap<>();
+    /**
+     * Returns the changed fields and clears them, for the save that is about to write them.
+     * Fields changed after this call are reported by the next one.
+     */
+    public int takeChanges() {
+        return changes.getAndSet(0);
     }
 
-    public void setLastActivationTime(UUID playerUUID, long timestamp) {
-        lastActivationTimes.put(playerUUID, timestamp);
+    /**
+     * Marks fields returned by {@link #takeChanges()} as changed again, because saving them failed.
+     */
+    public void restoreChanges(int fields) {
+        if (fields != 0) {
+            markChanged(fields);
+        }
     }
 
-    public long getLastActivationTime(UUID playerUUID) {
-        return lastActivationTimes.getOrDefault(playerUUID, 0L);
+    private void markChanged(int fields) {
+        // Checked first so repeated clicks don't each need a CAS; set atomically because a flush may take the mask
+        if ((changes.get() & fields) != fields) {
+            changes.getAndAccumulate(fields, (current, added) -> current | added);
+        }
     }
 
     public enum ActivationMethod {
         LEFT,
         RIGHT,
         BOTH,
-        SHIFT
+        SHIFT;
+
+        /**
+         * Whether a click activates a chest with this method.
+         */
+        public boolean accepts(boolean leftClick, boolean sneaking) {
+            switch (this) {
+                case LEFT:
+                    return leftClick && !sneaking;
+                case RIGHT:
+                    return !leftClick && !sneaking;
+                case BOTH:
+                    return !sneaking;
+                case SHIFT:
+                    return sneaking;
+                default:
+                    return false;
+            }
+        }
     }
 }
 
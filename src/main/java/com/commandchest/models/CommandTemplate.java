@@ -0,0 +1,256 @@
+package com.commandchest.models;
+
+import org.bukkit.Location;
+import org.bukkit.command.Command;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One step of a chest's command chain, parsed once when the chest is configured or loaded.
+ * A step is written as the command itself, optionally preceded by {@code [console]} or {@code [player]}
+ * (the default) and {@code [delay:<ticks>]}, e.g. {@code [delay:20] [console] give {player} diamond 1}.
+ * <p>
+ * Supported placeholders are {@code {player}}, {@code {uuid}}, {@code {x}}, {@code {y}}, {@code {z}},
+ * {@code {world}} and {@code {clicks}} (total activations of the chest). Rendering is a single
+ * {@link StringBuilder} pass over the pre-split parts; steps without placeholders render to a constant.
+ * Constant steps are also split into label and arguments up front, so they can be run on a pre-resolved
+ * {@link Command} without going through the command map.
+ */
+public final class CommandTemplate {
+
+    public enum Sender {
+        PLAYER,
+        CONSOLE
+    }
+
+    private enum Placeholder {
+        PLAYER("player"),
+        UUID("uuid"),
+        X("x"),
+        Y("y"),
+        Z("z"),
+        WORLD("world"),
+        CLICKS("clicks");
+
+        private static final Placeholder[] VALUES = values();
+
+        private final String name;
+
+        Placeholder(String name) {
+            this.name = name;
+        }
+
+        static Placeholder byName(String name) {
+            for (Placeholder placeholder : VALUES) {
+                if (placeholder.name.equals(name)) {
+                    return placeholder;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final String source;
+    private final Sender sender;
+    private final long delayTicks;
+    private final String text; // rendered command if it has no placeholders, otherwise null
+    private final String[] literals; // literals[i] precedes placeholders[i]; one extra trailing literal
+    private final Placeholder[] placeholders;
+    private final boolean usesClicks;
+    private final String label; // lower-cased command label of a constant step, otherwise null
+    private final String[] arguments;
+
+    // Resolved by CommandTargets; only valid while its generation matches. One volatile reference, so
+    // region threads on Folia always see a command together with the generation it was resolved in
+    private volatile Target target;
+
+    private CommandTemplate(String source, Sender sender, long delayTicks, String[] literals,
+                            Placeholder[] placeholders) {
+        this.source = source;
+        this.sender = sender;
+        this.delayTicks = delayTicks;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.text = placeholders.length == 0 ? literals[0] : null;
+
+        boolean clicks = false;
+        for (Placeholder placeholder : placeholders) {
+            clicks |= placeholder == Placeholder.CLICKS;
+        }
+        this.usesClicks = clicks;
+
+        if (text != null && !text.isEmpty()) {
+            // Split the way the command map does, so a direct call sees the same label and arguments
+            String[] parts = text.split(" ");
+            this.label = parts.length > 0 ? parts[0].toLowerCase(Locale.ENGLISH) : null;
+            this.arguments = parts.length > 0 ? Arrays.copyOfRange(parts, 1, parts.length) : new String[0];
+        } else {
+            this.label = null;
+            this.arguments = null;
+        }
+    }
+
+    /**
+     * Parses a step. Unknown prefixes and placeholders are kept as part of the command.
+     */
+    public static CommandTemplate compile(String source) {
+        Sender sender = Sender.PLAYER;
+        long delayTicks = 0;
+        String body = source.trim();
+
+        // Leading [console], [player] and [delay:N] prefixes, in any order
+        while (body.startsWith("[")) {
+            int close = body.indexOf(']');
+            if (close < 0) {
+                break;
+            }
+            String prefix = body.substring(1, close).trim().toLowerCase(Locale.ENGLISH);
+            if (prefix.equals("console")) {
+                sender = Sender.CONSOLE;
+            } else if (prefix.equals("player")) {
+                sender = Sender.PLAYER;
+            } else if (prefix.startsWith("delay:")) {
+                try {
+                    delayTicks = Math.max(0L, Long.parseLong(prefix.substring(6).trim()));
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            } else {
+                break;
+            }
+            body = body.substring(close + 1).trim();
+        }
+        if (body.startsWith("/")) {
+            body = body.substring(1);
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+        while (position < body.length()) {
+            int open = body.indexOf('{', position);
+            int close = open < 0 ? -1 : body.indexOf('}', open);
+            if (close < 0) {
+                literal.append(body, position, body.length());
+                break;
+            }
+
+            Placeholder placeholder = Placeholder.byName(body.substring(open + 1, close));
+            if (placeholder == null) {
+                literal.append(body, position, open + 1);
+                position = open + 1;
+                continue;
+            }
+            literal.append(body, position, open);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            placeholders.add(placeholder);
+            position = close + 1;
+        }
+        literals.add(literal.toString());
+
+        return new CommandTemplate(source, sender, delayTicks, literals.toArray(new String[0]),
+            placeholders.toArray(new Placeholder[0]));
+    }
+
+    /**
+     * Fills in the placeholders for an activation of {@code chestData} by {@code player}.
+     */
+    public String render(Player player, ChestData chestData, long clicks) {
+        if (text != null) {
+            return text;
+        }
+
+        Location location = chestData.getLocation();
+        StringBuilder builder = new StringBuilder(source.length() + 32);
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]);
+            switch (placeholders[i]) {
+                case PLAYER:
+                    builder.append(player.getName());
+                    break;
+                case UUID:
+                    builder.append(player.getUniqueId());
+                    break;
+                case X:
+                    builder.append(location.getBlockX());
+                    break;
+                case Y:
+                    builder.append(location.getBlockY());
+                    break;
+                case Z:
+                    builder.append(location.getBlockZ());
+                    break;
+                case WORLD:
+                    builder.append(chestData.getWorldName());
+                    break;
+                case CLICKS:
+                    builder.append(clicks);
+                    break;
+            }
+        }
+        return builder.append(literals[placeholders.length]).toString();
+    }
+
+    /**
+     * The step as the user wrote it; this is what gets stored.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public Sender getSender() {
+        return sender;
+    }
+
+    /**
+     * Ticks to wait after the previous step before running this one.
+     */
+    public long getDelayTicks() {
+        return delayTicks;
+    }
+
+    public boolean usesClicks() {
+        return usesClicks;
+    }
+
+    /**
+     * Returns the command label if the step has no placeholders, otherwise null.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Arguments of a constant step, split once at compile time. Must not be modified.
+     */
+    public String[] getArguments() {
+        return arguments;
+    }
+
+    /**
+     * The command this step was last resolved to, or null if it was never resolved.
+     */
+    public Target getTarget() {
+        return target;
+    }
+
+    public void setTarget(Target target) {
+        this.target = target;
+    }
+
+    public boolean isEmpty() {
+        return text != null && text.isEmpty();
+    }
+
+    /**
+     * A resolved command (null if the label isn't a plugin command) and the generation it was resolved in.
+     */
+    public record Target(Command command, int generation) {
+    }
+}
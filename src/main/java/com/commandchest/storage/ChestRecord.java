@@ -0,0 +1,202 @@
+package com.commandchest.storage;
+
+import com.commandchest.models.ChestData;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Immutable, world-independent copy of a chest's persisted state.
+ * Snapshots are taken on the main thread and can then be written or read on any thread.
+ * {@code legacyActivations} is only filled when reading chests saved before cooldowns moved to
+ * their own file; snapshots never carry any.
+ */
+public record ChestRecord(UUID chestUUID, String worldName, int x, int y, int z,
+                          List<String> nameLines, boolean nameVisible, List<String> commands, int cooldown,
+                          String activationMethod, String requiredMaterial, int requiredAmount,
+                          byte[] requiredItemData, long clicks, Map<UUID, Long> legacyActivations) {
+
+    /**
+     * Payload layout written by {@link #writePayload(DataOutput)}. Version 1 held a single command and no click count;
+     * version 2 had no required item data.
+     */
+    public static final int PAYLOAD_VERSION = 3;
+
+    // Paper can serialize a whole item; elsewhere required items are kept as material and amount only
+    private static final boolean ITEM_BYTES = hasItemBytes();
+
+    public static ChestRecord of(ChestData chestData) {
+        Location location = chestData.getLocation();
+        ItemStack requiredItem = chestData.getRequiredItem();
+        return new ChestRecord(
+            chestData.getChestUUID(),
+            chestData.getWorldName(),
+            location.getBlockX(),
+            location.getBlockY(),
+            location.getBlockZ(),
+            List.copyOf(chestData.getNameLines()),
+            chestData.isNameVisible(),
+            chestData.getCommands(),
+            chestData.getCooldown(),
+            chestData.getActivationMethod().name(),
+            requiredItem != null ? requiredItem.getType().name() : null,
+            requiredItem != null ? requiredItem.getAmount() : 0,
+            requiredItem != null ? serializeItem(requiredItem) : null,
+            chestData.getClicks(),
+            Map.of()
+        );
+    }
+
+    /**
+     * Binds the record to a loaded world. Must be called on the main thread.
+     */
+    public ChestData toChestData(World world) {
+        ChestData chestData = new ChestData(chestUUID, new Location(world, x, y, z));
+        chestData.setNameLines(new ArrayList<>(nameLines));
+        chestData.setNameVisible(nameVisible);
+        chestData.setCommands(commands);
+        chestData.setCooldown(cooldown);
+        chestData.setClicks(clicks);
+
+        try {
+            chestData.setActivationMethod(ChestData.ActivationMethod.valueOf(activationMethod));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            chestData.setActivationMethod(ChestData.ActivationMethod.RIGHT);
+        }
+
+        if (requiredItemData != null && ITEM_BYTES) {
+            try {
+                chestData.setRequiredItem(ItemStack.deserializeBytes(requiredItemData));
+            } catch (RuntimeException e) {
+                // Unreadable item data, fall back to the material below
+            }
+        }
+        if (requiredMaterial != null && chestData.getRequiredItem() == null) {
+            try {
+                ItemStack item = new ItemStack(Material.valueOf(requiredMaterial));
+                if (requiredAmount > 0) {
+                    item.setAmount(requiredAmount);
+                }
+                chestData.setRequiredItem(item);
+            } catch (IllegalArgumentException e) {
+                // Invalid material, skip
+            }
+        }
+
+        // Everything set above matches what is stored
+        chestData.takeChanges();
+        return chestData;
+    }
+
+    public ChestRecord withClicks(long clicks) {
+        return new ChestRecord(chestUUID, worldName, x, y, z, nameLines, nameVisible, commands, cooldown,
+            activationMethod, requiredMaterial, requiredAmount, requiredItemData, clicks, legacyActivations);
+    }
+
+    /**
+     * Writes everything except the UUID and world, which binary stores keep in their record header.
+     */
+    public void writePayload(DataOutput out) throws IOException {
+        out.writeInt(x);
+        out.writeInt(y);
+        out.writeInt(z);
+        out.writeInt(nameLines.size());
+        for (String line : nameLines) {
+            out.writeUTF(line);
+        }
+        out.writeBoolean(nameVisible);
+        out.writeInt(commands.size());
+        for (String command : commands) {
+            out.writeUTF(command);
+        }
+        out.writeInt(cooldown);
+        out.writeUTF(activationMethod);
+        out.writeBoolean(requiredMaterial != null);
+        if (requiredMaterial != null) {
+            out.writeUTF(requiredMaterial);
+            out.writeInt(requiredAmount);
+            out.writeInt(requiredItemData != null ? requiredItemData.length : -1);
+            if (requiredItemData != null) {
+                out.write(requiredItemData);
+            }
+        }
+        out.writeLong(clicks);
+        out.writeInt(legacyActivations.size());
+        for (Map.Entry<UUID, Long> entry : legacyActivations.entrySet()) {
+            out.writeLong(entry.getKey().getMostSignificantBits());
+            out.writeLong(entry.getKey().getLeastSignificantBits());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    /**
+     * Reads a payload written with the given {@link #PAYLOAD_VERSION}.
+     */
+    public static ChestRecord readPayload(DataInput in, UUID chestUUID, String worldName, int version)
+            throws IOException {
+        int x = in.readInt();
+        int y = in.readInt();
+        int z = in.readInt();
+        int lineCount = in.readInt();
+        List<String> nameLines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            nameLines.add(in.readUTF());
+        }
+        boolean nameVisible = in.readBoolean();
+        List<String> commands;
+        if (version >= 2) {
+            int commandCount = in.readInt();
+            commands = new ArrayList<>(commandCount);
+            for (int i = 0; i < commandCount; i++) {
+                commands.add(in.readUTF());
+            }
+        } else {
+            String command = in.readUTF();
+            commands = command.isEmpty() ? new ArrayList<>() : new ArrayList<>(List.of(command));
+        }
+        int cooldown = in.readInt();
+        String activationMethod = in.readUTF();
+        String requiredMaterial = null;
+        int requiredAmount = 0;
+        byte[] requiredItemData = null;
+        if (in.readBoolean()) {
+            requiredMaterial = in.readUTF();
+            requiredAmount = in.readInt();
+            int length = version >= 3 ? in.readInt() : -1;
+            if (length >= 0) {
+                requiredItemData = new byte[length];
+                in.readFully(requiredItemData);
+            }
+        }
+        long clicks = version >= 2 ? in.readLong() : 0L;
+        int activationCount = in.readInt();
+        Map<UUID, Long> legacyActivations = new HashMap<>(activationCount);
+        for (int i = 0; i < activationCount; i++) {
+            legacyActivations.put(new UUID(in.readLong(), in.readLong()), in.readLong());
+        }
+        return new ChestRecord(chestUUID, worldName, x, y, z, nameLines, nameVisible, commands, cooldown,
+            activationMethod, requiredMaterial, requiredAmount, requiredItemData, clicks, legacyActivations);
+    }
+
+    /**
+     * The full item, if it carries more than material and amount and the server can serialize it.
+     */
+    private static byte[] serializeItem(ItemStack item) {
+        return ITEM_BYTES && item.hasItemMeta() ? item.serializeAsBytes() : null;
+    }
+
+    private static boolean hasItemBytes() {
+        try {
+            ItemStack.class.getMethod("serializeAsBytes");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
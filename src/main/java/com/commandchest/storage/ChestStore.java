@@ -0,0 +1,59 @@
+package com.commandchest.storage;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Persistence backend for chest configurations.
+ * {@link #open()}, {@link #getWorldNames()} and {@link #loadWorld(String)} are called from the main thread;
+ * {@link #save(Collection)}, {@link #saveClicks(Collection)} and {@link #delete(UUID, String)} run on the
+ * write-behind thread.
+ * Implementations must tolerate a load running while a write is in progress.
+ */
+public interface ChestStore {
+
+    /**
+     * Name used for this backend in {@code storage.type}.
+     */
+    String getType();
+
+    /**
+     * Prepares the store and builds its lightweight index of which worlds have chests.
+     */
+    void open() throws IOException;
+
+    Set<String> getWorldNames();
+
+    default List<ChestRecord> loadWorld(String worldName) throws IOException {
+        return loadWorld(worldName, new LoadStats());
+    }
+
+    /**
+     * Reads the chests stored for a world. Chests that can't be read are logged, counted in {@code stats}
+     * and left out, rather than failing the whole world.
+     */
+    List<ChestRecord> loadWorld(String worldName, LoadStats stats) throws IOException;
+
+    void save(Collection<ChestRecord> records) throws IOException;
+
+    /**
+     * Whether {@link #saveClicks(Collection)} writes less than a full save. If not, chests whose only
+     * change is their click count are saved in full instead.
+     */
+    default boolean supportsClickUpdates() {
+        return false;
+    }
+
+    /**
+     * Stores new click counts of chests that were saved in full before, leaving their other fields as stored.
+     * Only called if {@link #supportsClickUpdates()} returns true.
+     */
+    void saveClicks(Collection<ClickUpdate> updates) throws IOException;
+
+    void delete(UUID chestUUID, String worldName) throws IOException;
+
+    void close() throws IOException;
+}
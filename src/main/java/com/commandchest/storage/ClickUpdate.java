@@ -0,0 +1,9 @@
+package com.commandchest.storage;
+
+import java.util.UUID;
+
+/**
+ * New click count of a chest whose other fields are unchanged since it was last saved in full.
+ */
+public record ClickUpdate(UUID chestUUID, String worldName, long clicks) {
+}
@@ -0,0 +1,311 @@
+package com.commandchest.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Active cooldowns in {@code cooldowns.dat}, kept apart from the chest configurations so a click
+ * never rewrites a chest. The file is a journal: each save appends the cooldowns started and cancelled
+ * since the last one, so its cost follows the number of clicks rather than the number of running
+ * cooldowns. Expired cooldowns are skipped when the journal is replayed. Once the journal is much larger
+ * than the table it describes, it is replaced by a compacted copy of the running cooldowns, written to a
+ * temp file, forced and moved into place. A failed append is cut off again so the next one doesn't land
+ * behind a torn record; if that fails too, appends are refused until the journal is compacted.
+ * {@link #load(Replay)} is called on the main thread; everything else runs on the chest writer thread.
+ * Version 1 files were a full snapshot ({@code count:int} followed by bare entries) and are compacted
+ * into the journal format on the first save.
+ *
+ * <pre>
+ * file   := MAGIC:int VERSION:int record*
+ * record := type:byte chestMost:long chestLeast:long playerMost:long playerLeast:long expiresAt:long crc32c:int
+ * type   := PUT | REMOVE (expiresAt 0) | REMOVE_CHEST (player and expiresAt 0)
+ * </pre>
+ */
+public class CooldownStore {
+
+    private static final int MAGIC = 0x4343434C; // "CCCL"
+    private static final int VERSION = 2;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 1 + 5 * 8 + 4;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_REMOVE = 2;
+    private static final byte TYPE_REMOVE_CHEST = 3;
+    private static final int MIN_COMPACTION_RECORDS = 4096;
+
+    private final Path file;
+    private final Logger logger;
+    private FileChannel channel;
+    private volatile long journalRecords;
+    private volatile boolean compactionNeeded; // old format, or an append that may not have made it to disk
+    private volatile boolean broken; // a failed append could not be cut off
+
+    public CooldownStore(File file, Logger logger) {
+        this.file = file.toPath();
+        this.logger = logger;
+    }
+
+    /**
+     * Replays the journal into {@code replay} and opens it for appending. A torn or damaged tail, left by a
+     * crash during an append, is cut off.
+     */
+    public void load(Replay replay) throws IOException {
+        // Until the replay succeeds, the first save rewrites the file from whatever was loaded
+        compactionNeeded = true;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            channel.write(fileHeader(), 0);
+            channel.force(true);
+            compactionNeeded = false;
+            return;
+        }
+
+        long validEnd;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file.getFileName() + " is not a CommandChest cooldown file");
+            }
+            int version = in.readInt();
+            if (version == 1) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    replay.put(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong());
+                }
+                return;
+            }
+            if (version != VERSION) {
+                throw new IOException("Unsupported cooldown file version " + version);
+            }
+
+            validEnd = FILE_HEADER_SIZE;
+            byte[] record = new byte[RECORD_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            CRC32C checksum = new CRC32C();
+            long records = 0;
+            while (in.readNBytes(record, 0, RECORD_SIZE) == RECORD_SIZE) {
+                checksum.reset();
+                checksum.update(record, 0, RECORD_SIZE - 4);
+                if ((int) checksum.getValue() != buffer.getInt(RECORD_SIZE - 4)) {
+                    break;
+                }
+                long chestMost = buffer.getLong(1);
+                long chestLeast = buffer.getLong(9);
+                long playerMost = buffer.getLong(17);
+                long playerLeast = buffer.getLong(25);
+                switch (record[0]) {
+                    case TYPE_PUT:
+                        replay.put(chestMost, chestLeast, playerMost, playerLeast, buffer.getLong(33));
+                        break;
+                    case TYPE_REMOVE:
+                        replay.remove(chestMost, chestLeast, playerMost, playerLeast);
+                        break;
+                    case TYPE_REMOVE_CHEST:
+                        replay.removeChest(chestMost, chestLeast);
+                        break;
+                    default:
+                        break;
+                }
+                records++;
+                validEnd += RECORD_SIZE;
+            }
+            journalRecords = records;
+            compactionNeeded = false;
+        } catch (EOFException e) {
+            throw new IOException(file.getFileName() + " has an incomplete header");
+        }
+
+        if (validEnd < channel.size()) {
+            logger.warning("Discarding " + (channel.size() - validEnd) + " byte(s) of incomplete or damaged data at"
+                + " the end of " + file.getFileName() + ".");
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Whether the next save should {@link #compact(long[])} rather than append, because the journal has
+     * grown well past the {@code liveEntries} it describes.
+     */
+    public boolean needsCompaction(int liveEntries) {
+        long records = journalRecords;
+        return compactionNeeded || (records >= MIN_COMPACTION_RECORDS && records > 2L * liveEntries);
+    }
+
+    public void append(Changes changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (broken) {
+            // Replay would stop at the damaged record and drop these along with it
+            throw new IOException(file.getFileName() + " has a damaged record and is waiting to be compacted");
+        }
+        long start = channel.size();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(changes.toRecords());
+            long position = start;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+            journalRecords += changes.size();
+        } catch (IOException | RuntimeException e) {
+            // The batch is missing from the journal - the next save rewrites it from memory
+            compactionNeeded = true;
+            try {
+                channel.truncate(start);
+                channel.force(true);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+                broken = true;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces the journal with the given cooldowns, in the layout of {@link com.commandchest.util.CooldownTable#toArray}.
+     */
+    public void compact(long[] entries) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        int count = entries.length / 5;
+        ByteBuffer records = ByteBuffer.allocate(count * RECORD_SIZE);
+        CRC32C checksum = new CRC32C();
+        for (int i = 0; i < entries.length; i += 5) {
+            writeRecord(records, checksum, TYPE_PUT, entries[i], entries[i + 1], entries[i + 2], entries[i + 3],
+                entries[i + 4]);
+        }
+        records.flip();
+
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(fileHeader());
+                while (records.hasRemaining()) {
+                    out.write(records);
+                }
+                out.force(true);
+            }
+            AtomicFiles.moveIntoPlace(temp, file);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            compactionNeeded = true;
+            throw e;
+        }
+
+        // The old channel still points at the replaced file
+        FileChannel previous = channel;
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (previous != null) {
+            previous.close();
+        }
+        journalRecords = count;
+        compactionNeeded = false;
+        broken = false;
+    }
+
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static void writeRecord(ByteBuffer buffer, CRC32C checksum, byte type, long chestMost, long chestLeast,
+                                    long playerMost, long playerLeast, long expiresAt) {
+        int start = buffer.position();
+        buffer.put(type).putLong(chestMost).putLong(chestLeast).putLong(playerMost).putLong(playerLeast)
+            .putLong(expiresAt);
+        checksum.reset();
+        checksum.update(buffer.array(), start, RECORD_SIZE - 4);
+        buffer.putInt((int) checksum.getValue());
+    }
+
+    private static ByteBuffer fileHeader() {
+        return ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+    }
+
+    /**
+     * Receives the journal's records in order while it is loaded.
+     */
+    public interface Replay {
+
+        /**
+         * @param expiresAt wall-clock time (epoch millis) at which the cooldown ends; may have passed already
+         */
+        void put(long chestMost, long chestLeast, long playerMost, long playerLeast, long expiresAt);
+
+        void remove(long chestMost, long chestLeast, long playerMost, long playerLeast);
+
+        void removeChest(long chestMost, long chestLeast);
+    }
+
+    /**
+     * Cooldown changes waiting to be appended, encoded as they happen so a save only swaps the buffer.
+     * Not thread-safe; owned by the cooldown manager until it is handed to the writer.
+     */
+    public static final class Changes {
+
+        private long[] values; // six per change: type, chest most/least, player most/least, expiresAt
+        private int size;
+
+        public Changes() {
+            this.values = new long[16 * 6];
+        }
+
+        public void put(UUID chestUUID, UUID playerUUID, long expiresAt) {
+            add(TYPE_PUT, chestUUID.getMostSignificantBits(), chestUUID.getLeastSignificantBits(),
+                playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits(), expiresAt);
+        }
+
+        public void remove(UUID chestUUID, UUID playerUUID) {
+            add(TYPE_REMOVE, chestUUID.getMostSignificantBits(), chestUUID.getLeastSignificantBits(),
+                playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits(), 0L);
+        }
+
+        public void removeChest(UUID chestUUID) {
+            add(TYPE_REMOVE_CHEST, chestUUID.getMostSignificantBits(), chestUUID.getLeastSignificantBits(), 0L, 0L, 0L);
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private void add(byte type, long chestMost, long chestLeast, long playerMost, long playerLeast,
+                         long expiresAt) {
+            int base = size * 6;
+            if (base == values.length) {
+                values = Arrays.copyOf(values, values.length << 1);
+            }
+            values[base] = type;
+            values[base + 1] = chestMost;
+            values[base + 2] = chestLeast;
+            values[base + 3] = playerMost;
+            values[base + 4] = playerLeast;
+            values[base + 5] = expiresAt;
+            size++;
+        }
+
+        private byte[] toRecords() {
+            ByteBuffer buffer = ByteBuffer.allocate(size * RECORD_SIZE);
+            CRC32C checksum = new CRC32C();
+            for (int i = 0; i < size; i++) {
+                int base = i * 6;
+                writeRecord(buffer, checksum, (byte) values[base], values[base + 1], values[base + 2],
+                    values[base + 3], values[base + 4], values[base + 5]);
+            }
+            return buffer.array();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.commandchest.storage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What a store read while loading chests, for the startup report. Stores may update it from several
+ * parser threads at once.
+ */
+public class LoadStats {
+
+    private final LongAdder records = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * A chest file or record that was read, whether or not it could be parsed.
+     */
+    public void recordRead(long size) {
+        records.increment();
+        bytes.add(size);
+    }
+
+    /**
+     * A chest that could not be read or parsed and was left out of the load.
+     */
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    public long getRecords() {
+        return records.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+}
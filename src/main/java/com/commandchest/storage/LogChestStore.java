@@ -0,0 +1,490 @@
+package com.commandchest.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * All chests in a single append-only file: a compacted snapshot of every live chest followed by a journal
+ * of the saves and deletes since. Every save appends a record and forces it to disk before it counts;
+ * the newest record for a chest wins. A chest whose only change is its click count gets a small
+ * {@code CLICKS} record instead of a full one, which overrides the count of its last full record. Opening the store streams through the file once, checking each
+ * record's CRC32C, to build an in-memory index of file offsets, and {@link #loadWorld(String)} reads just
+ * the payloads of that world. Replay stops at the first record that is incomplete or fails its checksum,
+ * since nothing after it can be trusted; that tail is cut off (and kept aside in {@code .corrupt} if it
+ * wasn't simply a torn final append). An append that fails is cut off again straight away, so later
+ * appends never land behind a torn record; if even that fails, nothing more is appended until the file
+ * has been compacted. Once superseded records outnumber the live ones, a new snapshot is
+ * written to a temp file, forced and moved over the store, which empties the journal.
+ * Files of an older version are rewritten in the current format when opened. Up to version 3 the file
+ * version was the payload version and records had no checksum; version 4 had no {@code CLICKS} records.
+ *
+ * <pre>
+ * file   := MAGIC:int VERSION:int PAYLOAD_VERSION:int record*
+ * record := type:byte uuidMost:long uuidLeast:long worldLength:short world:utf8 payloadLength:int payload crc32c:int
+ * type   := PUT (payload: {@link ChestRecord}) | DELETE (empty) | CLICKS (payload: clicks:long)
+ * </pre>
+ */
+public class LogChestStore implements ChestStore {
+
+    public static final String TYPE = "log";
+
+    private static final int MAGIC = 0x43434C47; // "CCLG"
+    private static final int VERSION = 5;
+    private static final int FILE_HEADER_SIZE = 12;
+    private static final int CHECKSUM_SIZE = 4;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+    private static final byte TYPE_CLICKS = 3;
+    private static final int MIN_COMPACTION_RECORDS = 256;
+
+    private final Path file;
+    private final Logger logger;
+    private final Map<String, Map<UUID, Entry>> worlds; // world -> chest -> newest payload
+    private FileChannel channel;
+    private int fileVersion = VERSION;
+    private int payloadVersion = ChestRecord.PAYLOAD_VERSION;
+    private int liveRecords;
+    private int deadRecords;
+    private boolean broken; // a failed append could not be cut off; compact before appending again
+
+    public LogChestStore(File file, Logger logger) {
+        this.file = file.toPath();
+        this.logger = logger;
+        this.worlds = new HashMap<>();
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            channel.write(fileHeader(), 0);
+            channel.force(true);
+        } else {
+            scan();
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized Set<String> getWorldNames() {
+        return new HashSet<>(worlds.keySet());
+    }
+
+    @Override
+    public synchronized List<ChestRecord> loadWorld(String worldName, LoadStats stats) throws IOException {
+        Map<UUID, Entry> entries = worlds.get(worldName);
+        if (entries == null) return Collections.emptyList();
+
+        List<ChestRecord> records = new ArrayList<>(entries.size());
+        for (Map.Entry<UUID, Entry> entry : entries.entrySet()) {
+            stats.recordRead(entry.getValue().length());
+            try {
+                records.add(readRecord(entry.getKey(), worldName, entry.getValue()));
+            } catch (IOException | RuntimeException e) {
+                // The record stays in the file, so a later version can still read it
+                logger.warning("Failed to load chest " + entry.getKey() + " from " + file.getFileName() + ": "
+                    + e.getMessage());
+                stats.recordFailure();
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized void save(Collection<ChestRecord> records) throws IOException {
+        checkWritable();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * records.size());
+        long position = channel.size();
+        List<Runnable> indexUpdates = new ArrayList<>(records.size());
+
+        for (ChestRecord record : records) {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(128);
+            record.writePayload(new DataOutputStream(payloadBytes));
+            byte[] payload = payloadBytes.toByteArray();
+
+            int headerSize = writeRecord(bytes, TYPE_PUT, record.chestUUID(), record.worldName(), payload);
+            Entry entry = new Entry(position + headerSize, payload.length);
+            position += headerSize + payload.length + CHECKSUM_SIZE;
+            indexUpdates.add(() -> index(record.chestUUID(), record.worldName(), entry));
+        }
+
+        append(bytes.toByteArray());
+        // Only point the index at the new records once they are on disk
+        indexUpdates.forEach(Runnable::run);
+        compactIfNeeded();
+    }
+
+    @Override
+    public boolean supportsClickUpdates() {
+        return true;
+    }
+
+    @Override
+    public synchronized void saveClicks(Collection<ClickUpdate> updates) throws IOException {
+        checkWritable();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48 * updates.size());
+        List<ClickUpdate> written = new ArrayList<>(updates.size());
+        for (ClickUpdate update : updates) {
+            Map<UUID, Entry> entries = worlds.get(update.worldName());
+            if (entries == null || !entries.containsKey(update.chestUUID())) {
+                // Deleted since - a count without its chest would be dropped on the next open anyway
+                continue;
+            }
+            byte[] payload = ByteBuffer.allocate(Long.BYTES).putLong(update.clicks()).array();
+            writeRecord(bytes, TYPE_CLICKS, update.chestUUID(), update.worldName(), payload);
+            written.add(update);
+        }
+        if (written.isEmpty()) {
+            return;
+        }
+
+        append(bytes.toByteArray());
+        for (ClickUpdate update : written) {
+            updateClicks(update.chestUUID(), update.worldName(), update.clicks());
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized void delete(UUID chestUUID, String worldName) throws IOException {
+        Map<UUID, Entry> entries = worlds.get(worldName);
+        if (entries == null || !entries.containsKey(chestUUID)) {
+            return;
+        }
+
+        checkWritable();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        writeRecord(bytes, TYPE_DELETE, chestUUID, worldName, new byte[0]);
+        append(bytes.toByteArray());
+        unindex(chestUUID, worldName);
+        deadRecords++; // the delete record itself
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        compactIfNeeded();
+        channel.close();
+        channel = null;
+    }
+
+    private void scan() throws IOException {
+        long size = channel.size();
+        long validEnd;
+        long largestRecord = 0;
+        String corruption = null;
+        boolean overrun = false;
+        CRC32C checksum = new CRC32C();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16), checksum))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file.getFileName() + " is not a CommandChest store");
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported store version " + version + " in " + file.getFileName());
+            }
+            fileVersion = version;
+            boolean checksummed = version >= 4;
+            payloadVersion = checksummed ? in.readInt() : version;
+            if (payloadVersion < 1 || payloadVersion > ChestRecord.PAYLOAD_VERSION) {
+                throw new IOException("Unsupported payload version " + payloadVersion + " in " + file.getFileName());
+            }
+
+            long position = checksummed ? FILE_HEADER_SIZE : 8;
+            validEnd = position;
+            while (true) {
+                checksum.reset();
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                try {
+                    UUID chestUUID = new UUID(in.readLong(), in.readLong());
+                    byte[] worldBytes = new byte[in.readUnsignedShort()];
+                    in.readFully(worldBytes);
+                    String worldName = new String(worldBytes, StandardCharsets.UTF_8);
+                    int payloadLength = in.readInt();
+                    if (payloadLength < 0) {
+                        corruption = "invalid payload length at offset " + position;
+                        break;
+                    }
+                    long payloadOffset = position + 1 + 16 + 2 + worldBytes.length + 4;
+                    long recordEnd = payloadOffset + payloadLength + (checksummed ? CHECKSUM_SIZE : 0);
+                    if (recordEnd > size) {
+                        // Either the last append was torn, or the length is damaged - decided below
+                        corruption = "record at offset " + position + " runs past the end of the file";
+                        overrun = true;
+                        break;
+                    }
+                    long clicks = -1;
+                    if (type == TYPE_CLICKS && payloadLength == Long.BYTES) {
+                        clicks = in.readLong();
+                    } else {
+                        // Skipping still reads the payload through the checksum, it just isn't kept
+                        in.skipNBytes(payloadLength);
+                    }
+
+                    if (checksummed) {
+                        int expected = (int) checksum.getValue();
+                        if (in.readInt() != expected) {
+                            corruption = "checksum mismatch at offset " + position;
+                            break;
+                        }
+                    }
+
+                    if (type == TYPE_PUT) {
+                        index(chestUUID, worldName, new Entry(payloadOffset, payloadLength));
+                    } else if (type == TYPE_DELETE) {
+                        unindex(chestUUID, worldName);
+                        deadRecords++;
+                    } else if (clicks >= 0) {
+                        updateClicks(chestUUID, worldName, clicks);
+                    } else {
+                        corruption = "unknown record type " + type + " at offset " + position;
+                        break;
+                    }
+                    largestRecord = Math.max(largestRecord, recordEnd - position);
+                    position = recordEnd;
+                    validEnd = position;
+                } catch (EOFException e) {
+                    // The header of the last record is cut off
+                    break;
+                }
+            }
+        }
+
+        if (validEnd >= size) {
+            return;
+        }
+        // A crash during an append leaves at most part of one record behind; anything longer, or a
+        // record that is complete but wrong, means data in the middle of the file was damaged
+        long discarded = size - validEnd;
+        if ((corruption == null || overrun) && discarded <= largestRecord) {
+            // A crash during an append leaves a partial record at the end - drop it
+            logger.warning("Discarding " + discarded + " byte(s) of incomplete data at the end of "
+                + file.getFileName() + ".");
+        } else {
+            // Damage rather than a torn append: keep the original around before cutting it off
+            Path backup = file.resolveSibling(file.getFileName() + ".corrupt");
+            Files.copy(file, backup, StandardCopyOption.REPLACE_EXISTING);
+            logger.severe(file.getFileName() + " is damaged (" + (corruption != null ? corruption
+                : "incomplete record at offset " + validEnd) + "); discarding the last " + discarded
+                + " byte(s). The original file was copied to " + backup.getFileName() + ".");
+        }
+        channel.truncate(validEnd);
+        channel.force(true);
+    }
+
+    private void compactIfNeeded() throws IOException {
+        boolean upgrade = fileVersion != VERSION || payloadVersion != ChestRecord.PAYLOAD_VERSION;
+        if (!upgrade && !broken && (deadRecords < MIN_COMPACTION_RECORDS || deadRecords < liveRecords)) {
+            return;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        Map<String, Map<UUID, Entry>> compacted = new HashMap<>();
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = FILE_HEADER_SIZE;
+            out.write(fileHeader());
+
+            for (Map.Entry<String, Map<UUID, Entry>> world : worlds.entrySet()) {
+                for (Map.Entry<UUID, Entry> chest : world.getValue().entrySet()) {
+                    byte[] payload = readPayload(chest.getValue());
+                    if (payloadVersion != ChestRecord.PAYLOAD_VERSION || chest.getValue().clicks() >= 0) {
+                        // Re-encode in the current payload format, with the latest click count folded in
+                        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(payload.length + 16);
+                        readRecord(chest.getKey(), world.getKey(), chest.getValue())
+                            .writePayload(new DataOutputStream(payloadBytes));
+                        payload = payloadBytes.toByteArray();
+                    }
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + payload.length);
+                    int headerSize = writeRecord(bytes, TYPE_PUT, chest.getKey(), world.getKey(), payload);
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+
+                    compacted.computeIfAbsent(world.getKey(), name -> new HashMap<>())
+                        .put(chest.getKey(), new Entry(position + headerSize, payload.length));
+                    position += headerSize + payload.length + CHECKSUM_SIZE;
+                }
+            }
+            out.force(true);
+        } catch (IOException | RuntimeException e) {
+            // The store itself is untouched and still open
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        // Windows can't replace a file that is still open
+        channel.close();
+        try {
+            AtomicFiles.moveIntoPlace(temp, file);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            // The compacted file if the move succeeded, the untouched original otherwise
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        if (upgrade) {
+            logger.info("Upgraded " + file.getFileName() + " from version " + fileVersion + " to " + VERSION + ".");
+        } else if (broken) {
+            logger.info("Rewrote " + file.getFileName() + " without the damaged record left by a failed save.");
+        } else {
+            logger.info("Compacted " + file.getFileName() + ": dropped " + deadRecords + " superseded record(s).");
+        }
+        worlds.clear();
+        worlds.putAll(compacted);
+        deadRecords = 0;
+        broken = false;
+        fileVersion = VERSION;
+        payloadVersion = ChestRecord.PAYLOAD_VERSION;
+    }
+
+    /**
+     * Rewrites the file first if a failed append left a damaged record in it, since replay would drop
+     * everything appended after that record. Must be called before the file size is used for new offsets.
+     */
+    private void checkWritable() throws IOException {
+        if (broken) {
+            compactIfNeeded();
+        }
+    }
+
+    private void append(byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long start = channel.size();
+        long position = start;
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            // Cut off whatever part of the records made it, so the caller's retry doesn't land behind it
+            try {
+                channel.truncate(start);
+                channel.force(true);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+                broken = true;
+                logger.severe("Could not roll back a failed write to " + file.getFileName()
+                    + "; it will be rewritten before the next save.");
+            }
+            throw e;
+        }
+    }
+
+    private ChestRecord readRecord(UUID chestUUID, String worldName, Entry entry) throws IOException {
+        byte[] payload = readPayload(entry);
+        ChestRecord record = ChestRecord.readPayload(new DataInputStream(new ByteArrayInputStream(payload)), chestUUID,
+            worldName, payloadVersion);
+        return entry.clicks() >= 0 ? record.withClicks(entry.clicks()) : record;
+    }
+
+    private byte[] readPayload(Entry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+        long position = entry.offset();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Record at " + entry.offset() + " runs past the end of " + file.getFileName());
+            }
+            position += read;
+        }
+        return buffer.array();
+    }
+
+    private void index(UUID chestUUID, String worldName, Entry entry) {
+        Entry previous = worlds.computeIfAbsent(worldName, name -> new HashMap<>()).put(chestUUID, entry);
+        if (previous != null) {
+            deadRecords++;
+        } else {
+            liveRecords++;
+        }
+    }
+
+    private void updateClicks(UUID chestUUID, String worldName, long clicks) {
+        Map<UUID, Entry> entries = worlds.get(worldName);
+        Entry entry = entries != null ? entries.get(chestUUID) : null;
+        if (entry != null) {
+            entries.put(chestUUID, new Entry(entry.offset(), entry.length(), clicks));
+        }
+        // Either way the record is folded away by the next compaction
+        deadRecords++;
+    }
+
+    private void unindex(UUID chestUUID, String worldName) {
+        Map<UUID, Entry> entries = worlds.get(worldName);
+        if (entries != null && entries.remove(chestUUID) != null) {
+            liveRecords--;
+            deadRecords++;
+            if (entries.isEmpty()) {
+                worlds.remove(worldName);
+            }
+        }
+    }
+
+    private static ByteBuffer fileHeader() {
+        return ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(ChestRecord.PAYLOAD_VERSION)
+            .flip();
+    }
+
+    /**
+     * Appends a complete record, checksum included, and returns the size of its header, i.e. the offset
+     * of the payload within the record.
+     */
+    private static int writeRecord(ByteArrayOutputStream bytes, byte type, UUID chestUUID, String worldName,
+                                   byte[] payload) throws IOException {
+        CRC32C checksum = new CRC32C();
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(bytes, checksum));
+        byte[] worldBytes = worldName.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(type);
+        out.writeLong(chestUUID.getMostSignificantBits());
+        out.writeLong(chestUUID.getLeastSignificantBits());
+        out.writeShort(worldBytes.length);
+        out.write(worldBytes);
+        out.writeInt(payload.length);
+        out.write(payload);
+        new DataOutputStream(bytes).writeInt((int) checksum.getValue());
+        return 1 + 16 + 2 + worldBytes.length + 4;
+    }
+
+    /**
+     * Where a chest's newest full record is, and the click count of a later {@code CLICKS} record
+     * (-1 if there is none).
+     */
+    private record Entry(long offset, int length, long clicks) {
+
+        Entry(long offset, int length) {
+            this(offset, length, -1);
+        }
+    }
+}
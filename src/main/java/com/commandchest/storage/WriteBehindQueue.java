@@ -0,0 +1,241 @@
+package com.commandchest.storage;
+
+import com.commandchest.metrics.Metrics;
+import com.commandchest.models.ChestData;
+import com.commandchest.util.TaskScheduler;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Coalesces chest saves and writes them off the main thread.
+ * Mutations only mark a chest dirty; every flush snapshots each dirty chest once
+ * and hands the batch to a single writer thread, so writes for a chest stay in order.
+ * Chests whose only change is their click count (see {@link ChestData#takeChanges()}) are written as a
+ * {@link ClickUpdate} if the store supports it, instead of serializing the whole chest again.
+ * If a chest can't be snapshotted or written, the changes taken from it are restored and it is queued
+ * again, so the next flush still saves every field that changed.
+ * On Folia chests are marked from several region threads, so marking and flushing share a lock.
+ */
+public class WriteBehindQueue {
+
+    private final ChestStore store;
+    private final Logger logger;
+    private final Metrics metrics;
+    private final Map<UUID, ChestData> dirtyChests; // guarded by itself
+    private final Set<UUID> deletingChests; // guarded by dirtyChests; deletes queued but not yet written
+    private final ExecutorService writer;
+    private TaskScheduler.Task flushTask;
+
+    // Counters
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong writtenChests = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public WriteBehindQueue(ChestStore store, Logger logger, Metrics metrics) {
+        this.store = store;
+        this.logger = logger;
+        this.metrics = metrics;
+        this.dirtyChests = new LinkedHashMap<>();
+        this.deletingChests = new HashSet<>();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CommandChest-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(TaskScheduler scheduler, long intervalTicks) {
+        long interval = Math.max(1L, intervalTicks);
+        flushTask = scheduler.runTimer(this::flush, interval, interval);
+    }
+
+    public void markDirty(ChestData chestData) {
+        synchronized (dirtyChests) {
+            dirtyChests.put(chestData.getChestUUID(), chestData);
+        }
+    }
+
+    public void markDeleted(ChestData chestData) {
+        UUID chestUUID = chestData.getChestUUID();
+        String worldName = chestData.getWorldName();
+        // Under the lock, so the delete is queued after any batch that still contains the chest
+        synchronized (dirtyChests) {
+            // A pending save would recreate the chest after the delete
+            dirtyChests.remove(chestUUID);
+            deletingChests.add(chestUUID);
+            pendingWrites.incrementAndGet();
+            writer.execute(() -> {
+                try {
+                    store.delete(chestUUID, worldName);
+                } catch (IOException e) {
+                    logger.warning("Failed to delete chest data " + chestUUID + ": " + e.getMessage());
+                } finally {
+                    synchronized (dirtyChests) {
+                        deletingChests.remove(chestUUID);
+                    }
+                    pendingWrites.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    public void flush() {
+        synchronized (dirtyChests) {
+            if (dirtyChests.isEmpty()) {
+                return;
+            }
+
+            // Snapshot before handing off, so the writer never reads chest data that is being edited
+            boolean clickUpdates = store.supportsClickUpdates();
+            List<ChestRecord> batch = new ArrayList<>(dirtyChests.size());
+            List<ClickUpdate> clicks = new ArrayList<>();
+            List<Taken> taken = new ArrayList<>(dirtyChests.size());
+            List<Taken> failed = new ArrayList<>();
+            for (ChestData chestData : dirtyChests.values()) {
+                // No recorded change means the caller changed something untracked - save it all
+                Taken entry = new Taken(chestData, chestData.takeChanges());
+                try {
+                    if (clickUpdates && entry.changes() == ChestData.CLICKS) {
+                        clicks.add(new ClickUpdate(chestData.getChestUUID(), chestData.getWorldName(),
+                            chestData.getClicks()));
+                    } else {
+                        batch.add(ChestRecord.of(chestData));
+                    }
+                    taken.add(entry);
+                } catch (Exception e) {
+                    failedWrites.incrementAndGet();
+                    logger.severe("Failed to save chest data " + chestData.getChestUUID() + ": " + e.getMessage());
+                    failed.add(entry);
+                }
+            }
+            dirtyChests.clear();
+            requeue(failed);
+
+            if (taken.isEmpty()) {
+                return;
+            }
+
+            pendingWrites.addAndGet(taken.size());
+            writer.execute(() -> writeBatch(batch, clicks, taken));
+        }
+    }
+
+    /**
+     * Runs a task on the writer thread after every write queued so far.
+     */
+    public void submit(Runnable task) {
+        writer.execute(task);
+    }
+
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        flush();
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.severe("Timed out waiting for " + pendingWrites.get() + " chest(s) to be written.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeBatch(List<ChestRecord> batch, List<ClickUpdate> clicks, List<Taken> taken) {
+        long start = System.nanoTime();
+        int size = taken.size();
+        try {
+            if (!batch.isEmpty()) {
+                store.save(batch);
+            }
+            if (!clicks.isEmpty()) {
+                store.saveClicks(clicks);
+            }
+            writtenChests.addAndGet(size);
+            metrics.recordSave(size, System.nanoTime() - start);
+        } catch (IOException | RuntimeException e) {
+            failedWrites.incrementAndGet();
+            logger.severe("Failed to save " + size + " chest(s), retrying on the next flush: " + e.getMessage());
+            // The store may have written part of the batch; writing those chests again is harmless
+            synchronized (dirtyChests) {
+                requeue(taken);
+            }
+        } finally {
+            pendingWrites.addAndGet(-size);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        flushCount.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        lastFlushNanos.set(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    /**
+     * Gives chests whose save failed their changes back and marks them dirty again, unless they were
+     * deleted meanwhile. Must hold the {@code dirtyChests} lock.
+     */
+    private void requeue(List<Taken> entries) {
+        for (Taken entry : entries) {
+            ChestData chestData = entry.chestData();
+            chestData.restoreChanges(entry.changes());
+            if (!deletingChests.contains(chestData.getChestUUID())) {
+                dirtyChests.put(chestData.getChestUUID(), chestData);
+            }
+        }
+    }
+
+    /**
+     * Number of chests waiting to be snapshotted plus chests waiting on the writer thread.
+     */
+    public int getQueueDepth() {
+        synchronized (dirtyChests) {
+            return dirtyChests.size() + pendingWrites.get();
+        }
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getWrittenChests() {
+        return writtenChests.get();
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    public double getLastFlushMillis() {
+        return lastFlushNanos.get() / 1_000_000.0;
+    }
+
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1_000_000.0;
+    }
+
+    public double getAverageFlushMillis() {
+        long count = flushCount.get();
+        return count == 0 ? 0.0 : totalFlushNanos.get() / 1_000_000.0 / count;
+    }
+
+    /**
+     * A chest in a flush and the changes taken from it for that flush.
+     */
+    private record Taken(ChestData chestData, int changes) {
+    }
+}
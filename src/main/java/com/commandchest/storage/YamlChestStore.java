@@ -0,0 +1,246 @@
+package com.commandchest.storage;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * One YAML file per chest in {@code chests/<world>/<uuid>.yml}. Easy to read and edit by hand,
+ * but startup costs one file open and one YAML parse per chest; the files of a world are parsed in
+ * parallel on the common fork-join pool.
+ */
+public class YamlChestStore implements ChestStore {
+
+    public static final String TYPE = "yaml";
+
+    private final File chestsFolder;
+    private final Logger logger;
+    private final Set<String> worldNames; // worlds that have a chest folder on disk
+
+    public YamlChestStore(File chestsFolder, Logger logger) {
+        this.chestsFolder = chestsFolder;
+        this.logger = logger;
+        this.worldNames = ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public void open() throws IOException {
+        Files.createDirectories(chestsFolder.toPath());
+        migrateLegacyFiles();
+
+        File[] worldFolders = chestsFolder.listFiles(File::isDirectory);
+        if (worldFolders != null) {
+            for (File worldFolder : worldFolders) {
+                worldNames.add(worldFolder.getName());
+            }
+        }
+    }
+
+    @Override
+    public Set<String> getWorldNames() {
+        return Collections.unmodifiableSet(worldNames);
+    }
+
+    @Override
+    public List<ChestRecord> loadWorld(String worldName, LoadStats stats) {
+        File[] files = new File(chestsFolder, worldName).listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files == null) return Collections.emptyList();
+
+        // Parsing is independent per file and only produces records, so it can spread over all cores
+        return Arrays.stream(files).parallel()
+            .map(file -> readFile(file, worldName, stats))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(() -> new ArrayList<>(files.length)));
+    }
+
+    @Override
+    public void save(Collection<ChestRecord> records) throws IOException {
+        IOException failure = null;
+        for (ChestRecord record : records) {
+            try {
+                File file = getChestFile(record.chestUUID(), record.worldName());
+                Files.createDirectories(file.getParentFile().toPath());
+                AtomicFiles.writeString(file.toPath(), toConfiguration(record).saveToString());
+                worldNames.add(record.worldName());
+            } catch (IOException e) {
+                // Keep writing the rest of the batch, report the first failure
+                logger.severe("Failed to save chest data " + record.chestUUID() + ": " + e.getMessage());
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void saveClicks(Collection<ClickUpdate> updates) {
+        // supportsClickUpdates() is false, so the queue saves these chests in full instead
+        throw new IllegalStateException("YAML storage only saves whole chests");
+    }
+
+    @Override
+    public void delete(UUID chestUUID, String worldName) throws IOException {
+        Files.deleteIfExists(getChestFile(chestUUID, worldName).toPath());
+    }
+
+    @Override
+    public void close() {
+        // Every write is already on disk
+    }
+
+    private File getChestFile(UUID chestUUID, String worldName) {
+        return new File(new File(chestsFolder, worldName), chestUUID.toString() + ".yml");
+    }
+
+    private void migrateLegacyFiles() {
+        // Older versions kept every chest directly in chests/ - move them into per-world folders once
+        File[] legacyFiles = chestsFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (legacyFiles == null || legacyFiles.length == 0) return;
+
+        int migrated = 0;
+        for (File file : legacyFiles) {
+            String worldName = YamlConfiguration.loadConfiguration(file).getString("location.world");
+            if (worldName == null || worldName.isEmpty()) {
+                logger.warning("Chest file " + file.getName() + " has no world, leaving it in place.");
+                continue;
+            }
+
+            File worldFolder = new File(chestsFolder, worldName);
+            if (!worldFolder.exists()) {
+                worldFolder.mkdirs();
+            }
+            if (file.renameTo(new File(worldFolder, file.getName()))) {
+                migrated++;
+            } else {
+                logger.warning("Failed to move chest file " + file.getName() + " into " + worldName + "/.");
+            }
+        }
+        logger.info("Moved " + migrated + " chest file(s) into per-world folders.");
+    }
+
+    private ChestRecord readFile(File file, String worldName, LoadStats stats) {
+        try {
+            byte[] content = Files.readAllBytes(file.toPath());
+            stats.recordRead(content.length);
+            YamlConfiguration config = new YamlConfiguration();
+            config.loadFromString(new String(content, StandardCharsets.UTF_8));
+            return readRecord(config, worldName);
+        } catch (IOException | InvalidConfigurationException | RuntimeException e) {
+            // The file is left as it is, so the chest is back once it is fixed
+            logger.warning("Failed to load chest data from " + file.getName() + ": " + e.getMessage());
+            stats.recordFailure();
+            return null;
+        }
+    }
+
+    private ChestRecord readRecord(FileConfiguration config, String worldName) {
+        String uuid = config.getString("uuid");
+        if (uuid == null) {
+            throw new IllegalArgumentException("missing uuid");
+        }
+        UUID chestUUID = UUID.fromString(uuid);
+
+        String requiredMaterial = null;
+        int requiredAmount = 0;
+        byte[] requiredItemData = null;
+        if (config.contains("required-item")) {
+            requiredMaterial = config.getString("required-item.material");
+            requiredAmount = config.getInt("required-item.amount", 0);
+            String data = config.getString("required-item.data");
+            if (data != null) {
+                requiredItemData = Base64.getDecoder().decode(data);
+            }
+        }
+
+        // Activation times from before cooldowns had their own file, imported once by the cooldown manager
+        Map<UUID, Long> activations = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("last-activations");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                try {
+                    activations.put(UUID.fromString(key), section.getLong(key));
+                } catch (IllegalArgumentException e) {
+                    // Invalid UUID, skip
+                }
+            }
+        }
+
+        // The folder decides the world, so a chest is never bound to a world it wasn't stored under
+        return new ChestRecord(
+            chestUUID,
+            worldName,
+            config.getInt("location.x"),
+            config.getInt("location.y"),
+            config.getInt("location.z"),
+            config.getStringList("name.lines"),
+            config.getBoolean("name.visible", true),
+            readCommands(config),
+            config.getInt("cooldown", 0),
+            config.getString("activation-method", "RIGHT"),
+            requiredMaterial,
+            requiredAmount,
+            requiredItemData,
+            config.getLong("clicks", 0L),
+            activations
+        );
+    }
+
+    private FileConfiguration toConfiguration(ChestRecord record) {
+        // Every key is written below, so there is no need to re-read the existing file
+        FileConfiguration config = new YamlConfiguration();
+
+        config.set("uuid", record.chestUUID().toString());
+        config.set("location.world", record.worldName());
+        config.set("location.x", record.x());
+        config.set("location.y", record.y());
+        config.set("location.z", record.z());
+
+        config.set("name.lines", record.nameLines());
+        config.set("name.visible", record.nameVisible());
+        config.set("commands", record.commands());
+        config.set("cooldown", record.cooldown());
+        config.set("activation-method", record.activationMethod());
+        if (record.clicks() > 0) {
+            config.set("clicks", record.clicks());
+        }
+
+        // Save required item
+        if (record.requiredMaterial() != null) {
+            config.set("required-item.material", record.requiredMaterial());
+            config.set("required-item.amount", record.requiredAmount());
+            if (record.requiredItemData() != null) {
+                // Name, lore and other item data, for required items matched by more than their material
+                config.set("required-item.data", Base64.getEncoder().encodeToString(record.requiredItemData()));
+            }
+        }
+
+        return config;
+    }
+
+    private static List<String> readCommands(FileConfiguration config) {
+        if (config.isList("commands")) {
+            return config.getStringList("commands");
+        }
+        // Chests saved before command chains had a single "command"
+        String command = config.getString("command", "");
+        return command.isEmpty() ? new ArrayList<>() : new ArrayList<>(List.of(command));
+    }
+}
@@ -0,0 +1,72 @@
+package com.commandchest.util;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+
+/**
+ * The configuration stick handed out by {@code /cchest}. Sticks carry a persistent data tag, so every
+ * interact event can recognise one without comparing names. On Paper the tag is read through the item's
+ * read-only data view, which doesn't copy the item meta the way {@code getItemMeta()} does.
+ */
+public class ConfigurationStick {
+
+    private static final String LEGACY_NAME = ChatColor.GOLD + "Configuration Stick";
+    private static final boolean DATA_VIEW = hasDataView();
+
+    private final NamespacedKey key;
+
+    public ConfigurationStick(Plugin plugin) {
+        this.key = new NamespacedKey(plugin, "configuration_stick");
+    }
+
+    public ItemStack create() {
+        ItemStack stick = new ItemStack(Material.STICK);
+        ItemMeta meta = stick.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(LEGACY_NAME);
+            meta.setLore(Arrays.asList(
+                    ChatColor.GRAY + "Right-click on a chest",
+                    ChatColor.GRAY + "to configure it."
+            ));
+            meta.getPersistentDataContainer().set(key, PersistentDataType.BYTE, (byte) 1);
+            stick.setItemMeta(meta);
+        }
+        return stick;
+    }
+
+    public boolean isStick(ItemStack item) {
+        // The material check rejects almost every click before any item data is read
+        if (item == null || item.getType() != Material.STICK) {
+            return false;
+        }
+        if (DATA_VIEW && item.getPersistentDataContainer().has(key)) {
+            return true;
+        }
+        if (!item.hasItemMeta()) {
+            return false;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        if (!DATA_VIEW && meta.getPersistentDataContainer().has(key)) {
+            return true;
+        }
+        // Sticks handed out before they were tagged only carry the name
+        return meta.hasDisplayName() && meta.getDisplayName().equals(LEGACY_NAME);
+    }
+
+    private static boolean hasDataView() {
+        try {
+            ItemStack.class.getMethod("getPersistentDataContainer");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.commandchest.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open-addressing table of cooldown deadlines keyed by the (chest UUID, player UUID) pair.
+ * Keys and deadlines are stored in primitive arrays, so a lookup is one probe sequence without
+ * boxing or allocation.
+ * <p>
+ * Expired entries are reclaimed by a hierarchical timer wheel (four levels of 64 one-second,
+ * 64-second, ~68-minute and ~3-day slots) that {@link #sweep(long, int)} advances a bounded amount
+ * of work at a time. The wheel refers to entries by slot index, so removals leave tombstones instead
+ * of moving entries; a rehash compacts the tombstones and rebuilds the wheel.
+ * Not thread-safe.
+ */
+public class CooldownTable {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+    private static final long DELETED = -1L;
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final int OVERFLOW_STAGE = LEVELS; // deadlines beyond the outermost level
+
+    private long[] keys; // four longs per slot: chest most/least, player most/least
+    private long[] deadlines; // epoch millis, or EMPTY / DELETED
+    private int mask;
+    private int size;
+    private int tombstones;
+
+    private final IntBucket[][] wheel;
+    private IntBucket overflow;
+    private long wheelSecond; // buckets before this second have all been handled
+    private int stage; // next stage to run for wheelSecond, counting down to 0 (expiry)
+    private IntBucket draining;
+    private int drainPosition;
+    private int drainStage;
+
+    public CooldownTable(long nowMillis) {
+        allocate(MIN_CAPACITY);
+        this.wheel = new IntBucket[LEVELS][WHEEL_SIZE];
+        for (IntBucket[] level : wheel) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                level[i] = new IntBucket();
+            }
+        }
+        this.overflow = new IntBucket();
+        this.wheelSecond = nowMillis / 1000;
+        this.stage = OVERFLOW_STAGE;
+    }
+
+    /**
+     * Returns the deadline stored for the pair, or 0 if there is none. The deadline may already have passed.
+     */
+    public long get(UUID chestUUID, UUID playerUUID) {
+        int index = find(chestUUID.getMostSignificantBits(), chestUUID.getLeastSignificantBits(),
+            playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+        return index < 0 ? 0L : deadlines[index];
+    }
+
+    public void put(UUID chestUUID, UUID playerUUID, long deadline) {
+        put(chestUUID.getMostSignificantBits(), chestUUID.getLeastSignificantBits(),
+            playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits(), deadline);
+    }
+
+    public void put(long chestMost, long chestLeast, long playerMost, long playerLeast, long deadline) {
+        if (deadline <= 0) {
+            throw new IllegalArgumentException("deadline must be positive");
+        }
+        int index = hash(chestMost, chestLeast, playerMost, playerLeast) & mask;
+        int firstTombstone = -1;
+        long state;
+        while ((state = deadlines[index]) != EMPTY) {
+            if (state == DELETED) {
+                if (firstTombstone < 0) {
+                    firstTombstone = index;
+                }
+            } else if (matches(index, chestMost, chestLeast, playerMost, playerLeast)) {
+                deadlines[index] = deadline;
+                // The old wheel entry is ignored when it fires, since the deadline no longer matches
+                schedule(index);
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (firstTombstone >= 0) {
+            index = firstTombstone;
+            tombstones--;
+        }
+        int base = index << 2;
+        keys[base] = chestMost;
+        keys[base + 1] = chestLeast;
+        keys[base + 2] = playerMost;
+        keys[base + 3] = playerLeast;
+        deadlines[index] = deadline;
+        size++;
+        schedule(index);
+
+        // Tombstones lengthen probe chains just like live entries, so both count towards the load factor
+        if (size + tombstones > (mask + 1) >>> 1) {
+            rehash(capacityFor(size));
+        }
+    }
+
+    public boolean remove(UUID chestUUID, UUID playerUUID) {
+        return remove(chestUUID.getMostSignificantBits(), chestUUID.getLeastSignificantBits(),
+            playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+    }
+
+    public boolean remove(long chestMost, long chestLeast, long playerMost, long playerLeast) {
+        int index = find(chestMost, chestLeast, playerMost, playerLeast);
+        if (index < 0) {
+            return false;
+        }
+        deleteSlot(index);
+        return true;
+    }
+
+    /**
+     * Removes every entry of a chest. Scans the whole table, so it's meant for rare events like deleting a chest.
+     */
+    public int removeChest(UUID chestUUID) {
+        return removeChest(chestUUID.getMostSignificantBits(), chestUUID.getLeastSignificantBits());
+    }
+
+    public int removeChest(long chestMost, long chestLeast) {
+        int removed = 0;
+        for (int i = 0; i < deadlines.length; i++) {
+            if (deadlines[i] > 0 && keys[i << 2] == chestMost && keys[(i << 2) + 1] == chestLeast) {
+                deleteSlot(i);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer action) {
+        for (int i = 0; i < deadlines.length; i++) {
+            if (deadlines[i] > 0) {
+                int base = i << 2;
+                action.accept(keys[base], keys[base + 1], keys[base + 2], keys[base + 3], deadlines[i]);
+            }
+        }
+    }
+
+    /**
+     * Copies the entries whose deadline is after {@code afterMillis} into one array of five longs per
+     * entry (chest most/least, player most/least, deadline), e.g. to write them out on another thread.
+     */
+    public long[] toArray(long afterMillis) {
+        long[] entries = new long[size * 5];
+        int length = 0;
+        for (int i = 0; i < deadlines.length; i++) {
+            if (deadlines[i] > afterMillis) {
+                System.arraycopy(keys, i << 2, entries, length, 4);
+                entries[length + 4] = deadlines[i];
+                length += 5;
+            }
+        }
+        return length == entries.length ? entries : Arrays.copyOf(entries, length);
+    }
+
+    /**
+     * Advances the timer wheel towards {@code nowMillis}, removing entries whose deadline has passed.
+     * At most {@code budget} wheel entries and empty seconds are processed per call; the rest is picked up
+     * by the next call. Returns the number of removed entries.
+     */
+    public int sweep(long nowMillis, int budget) {
+        long nowSecond = nowMillis / 1000;
+        int removed = 0;
+
+        while (budget > 0) {
+            if (draining != null) {
+                while (drainPosition < draining.size && budget-- > 0) {
+                    int index = draining.values[drainPosition++];
+                    if (drainStage == 0) {
+                        // Stale entries point at slots that were removed, reused or given a later deadline
+                        long deadline = deadlines[index];
+                        if (deadline > 0 && deadline <= nowMillis) {
+                            deleteSlot(index);
+                            removed++;
+                        }
+                    } else {
+                        schedule(index);
+                    }
+                }
+                if (drainPosition < draining.size) {
+                    break;
+                }
+                draining.clear();
+                draining = null;
+                if (drainStage == 0) {
+                    stage = 0; // entries already due when scheduled land in the current second's bucket again
+                }
+                continue;
+            }
+
+            if (wheelSecond > nowSecond) {
+                break;
+            }
+            if (stage < 0) {
+                wheelSecond++;
+                stage = OVERFLOW_STAGE;
+                budget--;
+                continue;
+            }
+
+            int current = stage--;
+            IntBucket bucket = takeBucket(current);
+            if (bucket != null) {
+                draining = bucket;
+                drainPosition = 0;
+                drainStage = current;
+            }
+        }
+
+        if (draining == null && mask + 1 > MIN_CAPACITY && size < (mask + 1) >>> 4) {
+            // Give memory back once a burst of cooldowns has expired
+            rehash(capacityFor(size));
+        }
+        return removed;
+    }
+
+    private IntBucket takeBucket(int stage) {
+        long second = wheelSecond;
+        IntBucket bucket;
+        if (stage == OVERFLOW_STAGE) {
+            if ((second & ((1L << (WHEEL_BITS * LEVELS)) - 1)) != 0 || overflow.size == 0) {
+                return null;
+            }
+            bucket = overflow;
+            overflow = new IntBucket();
+            return bucket;
+        }
+
+        // Level L cascades when the wheel enters a new block of 64^L seconds
+        if (stage > 0 && (second & ((1L << (WHEEL_BITS * stage)) - 1)) != 0) {
+            return null;
+        }
+        int slot = (int) ((second >>> (WHEEL_BITS * stage)) & WHEEL_MASK);
+        bucket = wheel[stage][slot];
+        if (bucket.size == 0) {
+            return null;
+        }
+        // Detach it so entries scheduled while draining go into a fresh bucket
+        wheel[stage][slot] = new IntBucket();
+        return bucket;
+    }
+
+    private void schedule(int index) {
+        long deadline = deadlines[index];
+        if (deadline <= 0) {
+            return;
+        }
+        // Round up, so a bucket only holds entries that are due once its second has started
+        long second = Math.max((deadline + 999) / 1000, wheelSecond);
+        for (int level = 0; level < LEVELS; level++) {
+            int blockBits = WHEEL_BITS * (level + 1);
+            if ((second >>> blockBits) == (wheelSecond >>> blockBits)) {
+                wheel[level][(int) ((second >>> (WHEEL_BITS * level)) & WHEEL_MASK)].add(index);
+                return;
+            }
+        }
+        overflow.add(index);
+    }
+
+    private int find(long chestMost, long chestLeast, long playerMost, long playerLeast) {
+        int index = hash(chestMost, chestLeast, playerMost, playerLeast) & mask;
+        long state;
+        while ((state = deadlines[index]) != EMPTY) {
+            if (state != DELETED && matches(index, chestMost, chestLeast, playerMost, playerLeast)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean matches(int index, long chestMost, long chestLeast, long playerMost, long playerLeast) {
+        int base = index << 2;
+        return keys[base + 2] == playerMost && keys[base + 3] == playerLeast
+            && keys[base] == chestMost && keys[base + 1] == chestLeast;
+    }
+
+    private void deleteSlot(int index) {
+        deadlines[index] = DELETED;
+        size--;
+        tombstones++;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldDeadlines = deadlines;
+        allocate(newCapacity);
+        for (int i = 0; i < oldDeadlines.length; i++) {
+            if (oldDeadlines[i] > 0) {
+                int oldBase = i << 2;
+                int index = hash(oldKeys[oldBase], oldKeys[oldBase + 1], oldKeys[oldBase + 2], oldKeys[oldBase + 3])
+                    & mask;
+                while (deadlines[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                System.arraycopy(oldKeys, oldBase, keys, index << 2, 4);
+                deadlines[index] = oldDeadlines[i];
+            }
+        }
+
+        // Every slot index moved - rebuild the wheel for the current second
+        for (IntBucket[] level : wheel) {
+            for (IntBucket bucket : level) {
+                bucket.clear();
+            }
+        }
+        overflow.clear();
+        draining = null;
+        stage = OVERFLOW_STAGE;
+        for (int i = 0; i < deadlines.length; i++) {
+            schedule(i);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity << 2];
+        deadlines = new long[capacity];
+        mask = capacity - 1;
+        tombstones = 0;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        // Leave room to grow to twice the size before the next rehash
+        int capacity = MIN_CAPACITY;
+        while (capacity >>> 2 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long chestMost, long chestLeast, long playerMost, long playerLeast) {
+        long hash = chestMost * 0x9E3779B97F4A7C15L + chestLeast;
+        hash = hash * 0x9E3779B97F4A7C15L + playerMost;
+        hash = hash * 0x9E3779B97F4A7C15L + playerLeast;
+        hash *= 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long chestMost, long chestLeast, long playerMost, long playerLeast, long deadline);
+    }
+
+    private static final class IntBucket {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        void clear() {
+            size = 0;
+            if (values.length > 64) {
+                values = new int[4];
+            }
+        }
+    }
+}
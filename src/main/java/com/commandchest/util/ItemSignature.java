@@ -0,0 +1,93 @@
+package com.commandchest.util;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * What a held item has to match to activate a chest, computed once from the chest's required item.
+ * Material and amount are checked first; the held item's meta, which {@code getItemMeta()} copies, is
+ * only read when the required item has a name, lore or custom model data to compare.
+ * <ul>
+ *     <li>{@link Mode#PARTIAL}: same display name, lore and custom model data. Enchantments, damage and
+ *     other data may differ.</li>
+ *     <li>{@link Mode#EXACT}: the held item must be similar to the required one (everything but the amount).</li>
+ * </ul>
+ */
+public final class ItemSignature {
+
+    public enum Mode {
+        PARTIAL,
+        EXACT;
+
+        public static Mode parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                return PARTIAL;
+            }
+        }
+    }
+
+    private final ItemStack item;
+    private final Material material;
+    private final int amount;
+    private final boolean hasMatchedFields; // name, lore or custom model data
+    private final String name;
+    private final List<String> lore;
+    private final int customModelData;
+
+    private ItemSignature(ItemStack item) {
+        this.item = item.clone();
+        this.material = item.getType();
+        this.amount = item.getAmount();
+        ItemMeta meta = item.hasItemMeta() ? item.getItemMeta() : null;
+        this.name = nameOf(meta);
+        this.lore = loreOf(meta);
+        this.customModelData = customModelDataOf(meta);
+        this.hasMatchedFields = name != null || lore != null || customModelData != 0;
+    }
+
+    public static ItemSignature of(ItemStack item) {
+        return item != null ? new ItemSignature(item) : null;
+    }
+
+    public boolean matches(ItemStack held, Mode mode) {
+        if (held == null || held.getType() != material || held.getAmount() < amount) {
+            return false;
+        }
+        if (mode == Mode.EXACT) {
+            return held.isSimilar(item);
+        }
+        if (!hasMatchedFields) {
+            // Enchantments, damage and the like don't matter, so there is no meta to read
+            return true;
+        }
+        if (!held.hasItemMeta()) {
+            // Without meta there is no name, lore or model data to match the required ones
+            return false;
+        }
+
+        // Cheapest comparison first
+        ItemMeta meta = held.getItemMeta();
+        return customModelDataOf(meta) == customModelData
+            && Objects.equals(nameOf(meta), name)
+            && Objects.equals(loreOf(meta), lore);
+    }
+
+    private static String nameOf(ItemMeta meta) {
+        return meta != null && meta.hasDisplayName() ? meta.getDisplayName() : null;
+    }
+
+    private static List<String> loreOf(ItemMeta meta) {
+        return meta != null && meta.hasLore() ? meta.getLore() : null;
+    }
+
+    private static int customModelDataOf(ItemMeta meta) {
+        return meta != null && meta.hasCustomModelData() ? meta.getCustomModelData() : 0;
+    }
+}
@@ -0,0 +1,149 @@
+package com.commandchest.util;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Runs plugin tasks on the right thread for the server we are on. On Folia, work on a block goes to the
+ * region scheduler of its location, work on a player to the player's entity scheduler and everything else
+ * to the global region. Elsewhere all of them are the Bukkit scheduler's main thread, as before.
+ * The Folia schedulers are only touched when running on Folia, so Spigot never loads them.
+ */
+public class TaskScheduler {
+
+    private static final boolean FOLIA = detectFolia();
+
+    private final Plugin plugin;
+
+    public TaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+    /**
+     * Repeats a task that isn't tied to any region, e.g. flushing saves or sweeping cooldowns.
+     */
+    public Task runTimer(Runnable task, long delayTicks, long periodTicks) {
+        if (FOLIA) {
+            ScheduledTask scheduled = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, ignored -> task.run(),
+                Math.max(1L, delayTicks), Math.max(1L, periodTicks));
+            return scheduled::cancel;
+        }
+        BukkitTask scheduled = Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+        return scheduled::cancel;
+    }
+
+    /**
+     * Runs a task on the global region (the main thread off Folia) on the next tick.
+     */
+    public void runGlobal(Runnable task) {
+        if (FOLIA) {
+            Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    public void runGlobalLater(Runnable task, long delayTicks) {
+        if (FOLIA) {
+            Bukkit.getGlobalRegionScheduler().runDelayed(plugin, ignored -> task.run(), Math.max(1L, delayTicks));
+        } else {
+            Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks);
+        }
+    }
+
+    /**
+     * Runs a task on the global region: right away if this thread already is it, otherwise as soon as possible.
+     */
+    public void executeGlobal(Runnable task) {
+        if (FOLIA || !Bukkit.isPrimaryThread()) {
+            runGlobal(task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Runs a task on the thread owning the location: right away if that is this thread, otherwise as soon
+     * as possible.
+     */
+    public void executeAt(Location location, Runnable task) {
+        if (FOLIA) {
+            if (Bukkit.isOwnedByCurrentRegion(location)) {
+                task.run();
+            } else {
+                Bukkit.getRegionScheduler().execute(plugin, location, task);
+            }
+        } else if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    /**
+     * Runs a task on the thread owning the entity: right away if that is this thread, otherwise as soon as
+     * possible. The task is dropped if the entity is removed (e.g. the player leaves) first.
+     */
+    public void executeFor(Entity entity, Runnable task) {
+        executeFor(entity, task, null);
+    }
+
+    /**
+     * Like {@link #executeFor(Entity, Runnable)}, but runs {@code retired} instead of the task if the entity
+     * is removed first. Only Folia drops the task; elsewhere it still runs and has to check the entity itself.
+     */
+    public void executeFor(Entity entity, Runnable task, Runnable retired) {
+        if (FOLIA) {
+            if (Bukkit.isOwnedByCurrentRegion(entity)) {
+                task.run();
+            } else if (!entity.getScheduler().execute(plugin, task, retired, 1L) && retired != null) {
+                // Already removed: Folia runs neither callback
+                retired.run();
+            }
+        } else if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    /**
+     * Runs a task on the entity's thread after a delay; dropped if the entity is removed first.
+     */
+    public void runForLater(Entity entity, Runnable task, long delayTicks) {
+        if (FOLIA) {
+            entity.getScheduler().execute(plugin, task, null, Math.max(1L, delayTicks));
+        } else {
+            Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks);
+        }
+    }
+
+    /**
+     * Whether this thread may touch the world at the location. Always the main thread off Folia.
+     */
+    public boolean isOwnedByCurrentThread(Location location) {
+        return FOLIA ? Bukkit.isOwnedByCurrentRegion(location) : Bukkit.isPrimaryThread();
+    }
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Task {
+        void cancel();
+    }
+}
@@ -0,0 +1,74 @@
+package com.commandchest.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket parameters, evaluated with the generic cell rate algorithm: instead of a token count and
+ * a refill timestamp, a bucket's whole state is a single {@code long}, the theoretical arrival time
+ * (TAT) of the next activation. A bucket is full when its TAT is in the past, and each activation pushes
+ * the TAT one emission interval further; an activation is refused if that would put the TAT more than
+ * {@code burst} intervals ahead of now. State lives in an {@link AtomicLong} owned by the caller and is
+ * updated with a compare-and-set, so checks take no locks and allocate nothing.
+ * <p>
+ * Times are nanoseconds on any monotonic clock that starts at or above zero, so a fresh state of 0 means "full".
+ */
+public final class TokenBucket {
+
+    private final long interval; // nanos per token
+    private final long capacity; // nanos of burst, interval * burst
+
+    private TokenBucket(long interval, long capacity) {
+        this.interval = interval;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns null if the limit is disabled, i.e. {@code perSecond} or {@code burst} is not positive.
+     */
+    public static TokenBucket of(double perSecond, int burst) {
+        if (perSecond <= 0 || burst <= 0) {
+            return null;
+        }
+        long interval = Math.max(1L, Math.round(1_000_000_000.0 / perSecond));
+        return new TokenBucket(interval, interval * burst);
+    }
+
+    /**
+     * Returns the state after one more activation at {@code now}, or -1 if the bucket is empty.
+     */
+    public long next(long state, long now) {
+        long next = Math.max(state, now) + interval;
+        return next - now > capacity ? -1L : next;
+    }
+
+    /**
+     * Takes a token if one is available.
+     */
+    public boolean tryAcquire(AtomicLong state, long now) {
+        while (true) {
+            long current = state.get();
+            long next = next(current, now);
+            if (next < 0) {
+                return false;
+            }
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire(AtomicLong, long)}, by moving the TAT back one interval.
+     * Subtracting commutes with other threads' updates, so this needs no retry loop.
+     */
+    public void release(AtomicLong state) {
+        state.addAndGet(-interval);
+    }
+
+    /**
+     * True if the state no longer holds back any activation, so it can be dropped and recreated as 0.
+     */
+    public static boolean isIdle(long state, long now) {
+        return state <= now;
+    }
+}
@@ -0,0 +1,144 @@
+package com.commandchest.storage;
+
+import com.commandchest.metrics.Metrics;
+import com.commandchest.models.ChestData;
+import org.bukkit.Location;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindQueueTest {
+
+    @Test
+    void failedSaveIsRetriedAsFullRecord() throws InterruptedException {
+        RecordingStore store = new RecordingStore();
+        WriteBehindQueue queue = new WriteBehindQueue(store, Logger.getAnonymousLogger(), new Metrics());
+        ChestData chest = loadedChest();
+
+        chest.setCooldown(30);
+        store.failNext = true;
+        queue.markDirty(chest);
+        queue.flush();
+        awaitWriter(queue);
+        assertTrue(store.saved.isEmpty());
+
+        // Only the click is new, but the cooldown never reached the store
+        chest.incrementClicks();
+        queue.markDirty(chest);
+        queue.flush();
+        queue.shutdown();
+
+        assertEquals(1, store.saved.size());
+        assertEquals(30, store.saved.get(0).cooldown());
+        assertEquals(1, store.saved.get(0).clicks());
+        assertTrue(store.clicks.isEmpty());
+        assertEquals(0, chest.getChanges());
+    }
+
+    @Test
+    void failedSaveDoesNotOutliveDelete() throws InterruptedException {
+        RecordingStore store = new RecordingStore();
+        WriteBehindQueue queue = new WriteBehindQueue(store, Logger.getAnonymousLogger(), new Metrics());
+        ChestData chest = loadedChest();
+
+        chest.setCooldown(30);
+        store.failNext = true;
+        CountDownLatch saving = new CountDownLatch(1);
+        store.blockSave = saving;
+        queue.markDirty(chest);
+        queue.flush();
+        queue.markDeleted(chest);
+        saving.countDown();
+        awaitWriter(queue);
+
+        queue.flush();
+        queue.shutdown();
+
+        assertTrue(store.saved.isEmpty());
+        assertEquals(List.of(chest.getChestUUID()), store.deleted);
+    }
+
+    private static ChestData loadedChest() {
+        ChestData chest = new ChestData(UUID.randomUUID(), new Location(null, 1, 64, 1));
+        // A chest read from the store has nothing left to save
+        chest.takeChanges();
+        return chest;
+    }
+
+    private static void awaitWriter(WriteBehindQueue queue) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        queue.submit(latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    private static class RecordingStore implements ChestStore {
+
+        final List<ChestRecord> saved = Collections.synchronizedList(new ArrayList<>());
+        final List<ClickUpdate> clicks = Collections.synchronizedList(new ArrayList<>());
+        final List<UUID> deleted = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean failNext;
+        volatile CountDownLatch blockSave;
+
+        @Override
+        public String getType() {
+            return "test";
+        }
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public Set<String> getWorldNames() {
+            return Set.of();
+        }
+
+        @Override
+        public List<ChestRecord> loadWorld(String worldName, LoadStats stats) {
+            return List.of();
+        }
+
+        @Override
+        public void save(Collection<ChestRecord> records) throws IOException {
+            CountDownLatch latch = blockSave;
+            if (latch != null) {
+                blockSave = null;
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failNext) {
+                failNext = false;
+                throw new IOException("disk full");
+            }
+            saved.addAll(records);
+        }
+
+        @Override
+        public boolean supportsClickUpdates() {
+            return true;
+        }
+
+        @Override
+        public void saveClicks(Collection<ClickUpdate> updates) {
+            clicks.addAll(updates);
+        }
+
+        @Override
+        public void delete(UUID chestUUID, String worldName) {
+            deleted.add(chestUUID);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
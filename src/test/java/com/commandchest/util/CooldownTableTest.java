@@ -0,0 +1,200 @@
+package com.commandchest.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CooldownTableTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long DAY = 86_400_000L;
+
+    @Test
+    void matchesMapModelUnderRandomOperations() {
+        Random random = new Random(42);
+        UUID[] chests = uuids(8);
+        UUID[] players = uuids(64);
+        long now = START;
+        CooldownTable table = new CooldownTable(now);
+        Map<List<UUID>, Long> model = new HashMap<>();
+
+        for (int op = 0; op < 100_000; op++) {
+            UUID chest = chests[random.nextInt(chests.length)];
+            UUID player = players[random.nextInt(players.length)];
+            int action = random.nextInt(100);
+            if (action < 45) {
+                long deadline = now + randomDuration(random);
+                table.put(chest, player, deadline);
+                model.put(List.of(chest, player), deadline);
+            } else if (action < 65) {
+                assertEquals(model.remove(List.of(chest, player)) != null, table.remove(chest, player));
+            } else if (action < 66) {
+                int expected = 0;
+                for (Iterator<List<UUID>> it = model.keySet().iterator(); it.hasNext(); ) {
+                    if (it.next().get(0).equals(chest)) {
+                        it.remove();
+                        expected++;
+                    }
+                }
+                assertEquals(expected, table.removeChest(chest));
+            } else if (action < 90) {
+                Long deadline = model.get(List.of(chest, player));
+                assertEquals(deadline == null ? 0L : deadline, table.get(chest, player));
+            } else {
+                // The wheel steps through every second, so long jumps are kept rare; they still cross level 3
+                now += random.nextInt(100) == 0 ? (long) (random.nextDouble() * 4 * DAY) : random.nextInt(5_000);
+                // A small budget leaves work for later calls; only expired entries may ever be removed
+                table.sweep(now, random.nextBoolean() ? 16 : Integer.MAX_VALUE);
+                syncRemovals(table, model, now);
+            }
+            assertEquals(model.size(), table.size());
+        }
+
+        table.sweep(now, Integer.MAX_VALUE);
+        syncRemovals(table, model, now);
+        assertNoneDue(model, now);
+    }
+
+    @Test
+    void cascadesDeadlinesFromEveryLevel() {
+        CooldownTable table = new CooldownTable(START);
+        UUID chest = UUID.randomUUID();
+        // One second, one minute, one hour, one day, a month and a year: each starts on a different level
+        long[] delays = {1_000L, 60_000L, 3_600_000L, DAY, 30 * DAY, 365 * DAY};
+        UUID[] players = uuids(delays.length);
+        for (int i = 0; i < delays.length; i++) {
+            table.put(chest, players[i], START + delays[i]);
+        }
+
+        for (int i = 0; i < delays.length; i++) {
+            long deadline = START + delays[i];
+            table.sweep(deadline - 1_000L, Integer.MAX_VALUE);
+            assertEquals(deadline, table.get(chest, players[i]), "removed early: " + delays[i]);
+            table.sweep(deadline + 1_000L, Integer.MAX_VALUE);
+            assertEquals(0L, table.get(chest, players[i]), "not removed: " + delays[i]);
+            assertEquals(delays.length - i - 1, table.size());
+        }
+    }
+
+    @Test
+    void extendedDeadlineOutlivesItsOldWheelEntry() {
+        CooldownTable table = new CooldownTable(START);
+        UUID chest = UUID.randomUUID();
+        UUID player = UUID.randomUUID();
+        table.put(chest, player, START + 2_000L);
+        table.put(chest, player, START + 120_000L);
+
+        table.sweep(START + 10_000L, Integer.MAX_VALUE);
+        assertEquals(START + 120_000L, table.get(chest, player));
+        table.sweep(START + 121_000L, Integer.MAX_VALUE);
+        assertEquals(0L, table.get(chest, player));
+    }
+
+    @Test
+    void removesEntryDueInTheSecondBeingDrained() {
+        CooldownTable table = new CooldownTable(START);
+        UUID chest = UUID.randomUUID();
+        for (UUID player : uuids(100)) {
+            table.put(chest, player, START + 1_000L);
+        }
+        // Stop halfway through the bucket, then add an entry that lands in that same bucket
+        table.sweep(START + 1_000L, 10);
+        UUID late = UUID.randomUUID();
+        table.put(chest, late, START + 1_000L);
+
+        table.sweep(START + 1_000L, Integer.MAX_VALUE);
+        assertEquals(0L, table.get(chest, late));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void reusesTombstonesWithoutLosingEntries() {
+        CooldownTable table = new CooldownTable(START);
+        UUID chest = UUID.randomUUID();
+        UUID[] kept = uuids(6);
+        for (UUID player : kept) {
+            table.put(chest, player, START + DAY);
+        }
+        // Churn leaves a tombstone per removal, ahead of the kept entries in some probe chains
+        for (int i = 0; i < 10_000; i++) {
+            UUID player = UUID.randomUUID();
+            table.put(chest, player, START + 1_000L);
+            assertTrue(table.remove(chest, player));
+        }
+
+        assertEquals(kept.length, table.size());
+        for (UUID player : kept) {
+            assertEquals(START + DAY, table.get(chest, player));
+        }
+    }
+
+    @Test
+    void growsAndShrinksKeepingTheWheel() {
+        CooldownTable table = new CooldownTable(START);
+        UUID chest = UUID.randomUUID();
+        UUID[] shortLived = uuids(5_000);
+        UUID[] longLived = uuids(3);
+        for (UUID player : shortLived) {
+            table.put(chest, player, START + 5_000L);
+        }
+        for (UUID player : longLived) {
+            table.put(chest, player, START + 600_000L);
+        }
+        assertEquals(shortLived.length + longLived.length, table.size());
+
+        // Expiring the burst shrinks the table, which rebuilds the wheel for the entries left
+        table.sweep(START + 6_000L, Integer.MAX_VALUE);
+        assertEquals(longLived.length, table.size());
+        assertEquals(3 * 5, table.toArray(START).length);
+
+        table.sweep(START + 601_000L, Integer.MAX_VALUE);
+        assertEquals(0, table.size());
+    }
+
+    private static void syncRemovals(CooldownTable table, Map<List<UUID>, Long> model, long now) {
+        Map<List<UUID>, Long> remaining = new HashMap<>();
+        table.forEach((chestMost, chestLeast, playerMost, playerLeast, deadline) -> remaining.put(
+            List.of(new UUID(chestMost, chestLeast), new UUID(playerMost, playerLeast)), deadline));
+        for (Map.Entry<List<UUID>, Long> entry : model.entrySet()) {
+            Long deadline = remaining.get(entry.getKey());
+            if (deadline == null) {
+                assertTrue(entry.getValue() <= now, "removed before its deadline");
+            } else {
+                assertEquals(entry.getValue(), deadline);
+            }
+        }
+        assertTrue(model.keySet().containsAll(remaining.keySet()));
+        model.keySet().retainAll(remaining.keySet());
+    }
+
+    private static void assertNoneDue(Map<List<UUID>, Long> model, long now) {
+        // The wheel works in whole seconds: everything due by the start of the current second is gone
+        long second = now / 1000 * 1000;
+        for (long deadline : model.values()) {
+            assertTrue(deadline > second, "expired entry survived a full sweep");
+        }
+    }
+
+    private static long randomDuration(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return 1 + random.nextInt(10_000);
+            case 1:
+                return 1 + random.nextInt(3_600_000);
+            case 2:
+                return 1 + (long) (random.nextDouble() * 7 * DAY);
+            default:
+                return 1 + (long) (random.nextDouble() * 400 * DAY);
+        }
+    }
+
+    private static UUID[] uuids(int count) {
+        UUID[] uuids = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            uuids[i] = UUID.randomUUID();
+        }
+        return uuids;
+    }
+}